@@ -0,0 +1,24 @@
+package com.nguyenna.authservice.config;
+
+import com.nguyenna.authservice.service.TokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListener;
+
+@Configuration
+public class ConsumerConfig {
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    // A random group per node, so every AuthService instance receives every invalidation
+    @KafkaListener(
+            topics = TokenCache.TOKEN_EVENT_TOPIC,
+            groupId = "auth-token-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${security.token-cache.broadcast-enabled:true}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onTokenEventReceived(String token) {
+        tokenCache.invalidate(token);
+    }
+}
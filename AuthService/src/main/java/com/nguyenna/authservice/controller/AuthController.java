@@ -3,6 +3,8 @@ package com.nguyenna.authservice.controller;
 import com.nguyenna.authservice.dto.ApiResponse;
 import com.nguyenna.authservice.dto.CreateAccountRequest;
 import com.nguyenna.authservice.dto.LoginRequest;
+import com.nguyenna.authservice.dto.RevokedTokenResponse;
+import com.nguyenna.authservice.dto.TokenVerificationResponse;
 import com.nguyenna.authservice.entity.Token;
 import com.nguyenna.authservice.service.AuthService;
 import com.nguyenna.authservice.dto.UserResponse;
@@ -14,6 +16,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -54,6 +58,18 @@ public class AuthController {
         return authService.getUser(token);
     }
 
+    @PostMapping("/verify")
+    @CircuitBreaker(name = "verifyToken", fallbackMethod = "fallback")
+    public ResponseEntity<TokenVerificationResponse> verifyToken(@RequestBody Token token) {
+        return authService.verifyToken(token);
+    }
+
+    @GetMapping("/revoked-tokens")
+    @CircuitBreaker(name = "getRevokedTokens", fallbackMethod = "fallback")
+    public ResponseEntity<List<RevokedTokenResponse>> getRevokedTokens(@RequestParam(defaultValue = "0") long since) {
+        return authService.getRevokedTokens(since);
+    }
+
     private ResponseEntity<?> fallback(Exception e) {
         return new ResponseEntity<>(new ApiResponse(
                 false,
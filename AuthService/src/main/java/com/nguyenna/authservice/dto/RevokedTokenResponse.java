@@ -0,0 +1,14 @@
+package com.nguyenna.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedTokenResponse {
+    private String tokenId;
+    private long expiresAt;
+    private long revokedAt;
+}
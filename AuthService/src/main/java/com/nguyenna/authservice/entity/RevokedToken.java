@@ -0,0 +1,23 @@
+package com.nguyenna.authservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "table_revoked_token", indexes = @Index(name = "idx_revoked_token_revoked_at", columnList = "revokedAt"))
+public class RevokedToken {
+    @Id
+    private String tokenId;
+    private long expiresAt;
+    private long revokedAt;
+}
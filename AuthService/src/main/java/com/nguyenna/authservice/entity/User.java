@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
@@ -15,6 +17,7 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "table_user"
 )
+@EntityListeners(UserCacheEvictionListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -28,4 +31,9 @@ public class User {
     private String role;
     private String otp;
     private LocalDate otpExpiredDate;
+    // The email as last read from or written to the database, see UserCacheEvictionListener
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String persistedEmail;
 }
@@ -0,0 +1,39 @@
+package com.nguyenna.authservice.entity;
+
+import com.nguyenna.authservice.service.UserDetailsServiceImpl;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached principal whenever a user row changes, so password, role and status updates are
+ * seen on the next request instead of after the cache TTL. The principal is cached under the email, so when
+ * the email itself changes the entry under the previous one is dropped as well.
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    @Lazy
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @PostLoad
+    @PostPersist
+    public void remember(User user) {
+        user.setPersistedEmail(user.getEmail());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userDetailsService.evict(user.getEmail());
+        if (user.getPersistedEmail() != null && !user.getPersistedEmail().equals(user.getEmail())) {
+            userDetailsService.evict(user.getPersistedEmail());
+        }
+        user.setPersistedEmail(user.getEmail());
+    }
+}
@@ -1,6 +1,7 @@
 package com.nguyenna.authservice.filter;
 
 import com.nguyenna.authservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,12 +31,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String requestHeader = request.getHeader("Authorization");
         String username = null;
         String token = null;
+        Claims claims = null;
 
         if (requestHeader != null && requestHeader.startsWith("Bearer") && requestHeader.length() > 16) {
             token = requestHeader.substring(7);
 
             try {
-                username = jwtUtil.getUsernameFromToken(token);
+                claims = jwtUtil.parseClaims(token);
+                username = claims.getSubject();
             } catch (Exception e) {
                 logger.info(e.getLocalizedMessage());
             }
@@ -43,7 +46,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            boolean validateToken = jwtUtil.validateToken(token, userDetails);
+            boolean validateToken = jwtUtil.validateToken(token, claims, userDetails);
 
             if (validateToken) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
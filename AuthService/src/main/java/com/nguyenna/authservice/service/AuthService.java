@@ -3,12 +3,16 @@ package com.nguyenna.authservice.service;
 import com.nguyenna.authservice.dto.ApiResponse;
 import com.nguyenna.authservice.dto.CreateAccountRequest;
 import com.nguyenna.authservice.dto.LoginRequest;
+import com.nguyenna.authservice.dto.RevokedTokenResponse;
+import com.nguyenna.authservice.dto.TokenVerificationResponse;
 import com.nguyenna.authservice.entity.Token;
 import com.nguyenna.authservice.dto.UserResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public interface AuthService {
 
@@ -21,4 +25,8 @@ public interface AuthService {
     ResponseEntity<ApiResponse> validateToken(Token token);
 
     ResponseEntity<UserResponse> getUser(Token token);
+
+    ResponseEntity<TokenVerificationResponse> verifyToken(Token token);
+
+    ResponseEntity<List<RevokedTokenResponse>> getRevokedTokens(long since);
 }
@@ -1,26 +1,33 @@
 package com.nguyenna.authservice.service;
 
 import com.nguyenna.authservice.dto.*;
+import com.nguyenna.authservice.entity.RevokedToken;
 import com.nguyenna.authservice.entity.Role;
 import com.nguyenna.authservice.entity.Status;
 import com.nguyenna.authservice.entity.Token;
 import com.nguyenna.authservice.entity.User;
+import com.nguyenna.authservice.repository.RevokedTokenRepository;
 import com.nguyenna.authservice.repository.TokenRepository;
 import com.nguyenna.authservice.repository.UserRepository;
 import com.nguyenna.authservice.util.JwtUtil;
 import com.nguyenna.authservice.util.RequestValidator;
-import com.saadahmedev.authservice.dto.*;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -40,6 +47,10 @@ public class AuthServiceImpl implements AuthService {
 
   @Autowired private TokenRepository tokenRepository;
 
+  @Autowired private RevokedTokenRepository revokedTokenRepository;
+
+  @Autowired private TokenCache tokenCache;
+
   @Override
   public ResponseEntity<?> register(CreateAccountRequest createAccountRequest) {
     ResponseEntity<?> validationResult =
@@ -77,11 +88,14 @@ public class AuthServiceImpl implements AuthService {
     authenticationManager.authenticate(
         new UsernamePasswordAuthenticationToken(
             loginRequest.getEmail(), loginRequest.getPassword()));
-    final UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-    String jwtToken = jwtUtil.generateToken(userDetails);
+    Optional<User> optionalUser = userRepository.findByEmail(loginRequest.getEmail());
+    if (optionalUser.isEmpty())
+      return new ResponseEntity<>(new ApiResponse(false, "Email does not exist"), HttpStatus.BAD_REQUEST);
+    String jwtToken = jwtUtil.generateToken(optionalUser.get());
 
     try {
       tokenRepository.save(new Token(jwtToken));
+      tokenCache.onLogin(jwtToken, jwtUtil.getExpirationDateFromToken(jwtToken).getTime());
       return new ResponseEntity<>(
           new LoginResponse(true, "Logged in successfully", jwtToken), HttpStatus.OK);
     } catch (Exception e) {
@@ -97,6 +111,8 @@ public class AuthServiceImpl implements AuthService {
 
     try {
       tokenRepository.deleteById(token);
+      tokenCache.onLogout(token);
+      revoke(token);
       return new ResponseEntity<>(new ApiResponse(true, "Logged out successfully"), HttpStatus.OK);
     } catch (Exception e) {
       return new ResponseEntity<>(
@@ -106,11 +122,18 @@ public class AuthServiceImpl implements AuthService {
 
   @Override
   public ResponseEntity<ApiResponse> validateToken(Token token) {
-    if (tokenRepository.findById(token.getToken()).isEmpty()) return sendUnauthorizedResponse();
+    Claims claims;
+    try {
+      claims = jwtUtil.parseClaims(token.getToken());
+    } catch (JwtException | IllegalArgumentException e) {
+      return sendUnauthorizedResponse();
+    }
+    if (!tokenCache.isActive(token.getToken(), claims.getExpiration().getTime()))
+      return sendUnauthorizedResponse();
 
-    UserDetails userDetails =
-        userDetailsService.loadUserByUsername(jwtUtil.getUsernameFromToken(token.getToken()));
-    if (!jwtUtil.validateToken(token.getToken(), userDetails)) return sendUnauthorizedResponse();
+    UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+    if (!jwtUtil.validateToken(token.getToken(), claims, userDetails))
+      return sendUnauthorizedResponse();
 
     return new ResponseEntity<>(
         new ApiResponse(true, "Request Authorization Success"), HttpStatus.OK);
@@ -118,20 +141,74 @@ public class AuthServiceImpl implements AuthService {
 
   @Override
   public ResponseEntity<UserResponse> getUser(Token token) {
-    String username = jwtUtil.getUsernameFromToken(token.getToken());
+    String username = jwtUtil.parseClaims(token.getToken()).getSubject();
     Optional<User> optionalUser = userRepository.findByEmail(username);
+    return optionalUser
+        .map(user -> new ResponseEntity<>(mapToUserResponse(user), HttpStatus.OK))
+        .orElse(null);
+  }
+
+  @Override
+  public ResponseEntity<TokenVerificationResponse> verifyToken(Token token) {
+    Claims claims;
+    try {
+      claims = jwtUtil.parseClaims(token.getToken());
+    } catch (JwtException | IllegalArgumentException e) {
+      return sendInvalidTokenResponse();
+    }
+    if (!tokenCache.isActive(token.getToken(), claims.getExpiration().getTime()))
+      return sendInvalidTokenResponse();
+
+    // The subject is the user's email, so finding the user is the same check validateToken makes
+    Optional<User> optionalUser = userRepository.findByEmail(claims.getSubject());
     return optionalUser
         .map(
             user ->
                 new ResponseEntity<>(
-                    new UserResponse(
-                        user.getId(),
-                        user.getFirstName(),
-                        user.getLastName(),
-                        user.getEmail(),
-                        user.getRole()),
-                    HttpStatus.OK))
-        .orElse(null);
+                    new TokenVerificationResponse(true, mapToUserResponse(user)), HttpStatus.OK))
+        .orElseGet(this::sendInvalidTokenResponse);
+  }
+
+  @Override
+  public ResponseEntity<List<RevokedTokenResponse>> getRevokedTokens(long since) {
+    List<RevokedToken> revokedTokens =
+        revokedTokenRepository.findAllByRevokedAtGreaterThanAndExpiresAtGreaterThanOrderByRevokedAt(
+            since, System.currentTimeMillis());
+    List<RevokedTokenResponse> response = new ArrayList<>(revokedTokens.size());
+    for (RevokedToken revokedToken : revokedTokens) {
+      response.add(
+          new RevokedTokenResponse(
+              revokedToken.getTokenId(),
+              revokedToken.getExpiresAt(),
+              revokedToken.getRevokedAt()));
+    }
+
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
+  @Scheduled(fixedDelayString = "${security.jwt.revoked-token-purge-ms:3600000}")
+  @Transactional
+  public void purgeExpiredRevokedTokens() {
+    revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+  }
+
+  // Services that verify tokens locally only see a logout through the revocation list, keyed by jti
+  private void revoke(String token) {
+    Claims claims = jwtUtil.parseClaims(token);
+    if (claims.getId() == null) return;
+
+    revokedTokenRepository.save(
+        new RevokedToken(
+            claims.getId(), claims.getExpiration().getTime(), System.currentTimeMillis()));
+  }
+
+  private UserResponse mapToUserResponse(User user) {
+    return new UserResponse(
+        user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getRole());
+  }
+
+  private ResponseEntity<TokenVerificationResponse> sendInvalidTokenResponse() {
+    return new ResponseEntity<>(new TokenVerificationResponse(false, null), HttpStatus.UNAUTHORIZED);
   }
 
   private ResponseEntity<ApiResponse> sendUnauthorizedResponse() {
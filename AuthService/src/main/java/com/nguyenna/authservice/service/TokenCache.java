@@ -0,0 +1,106 @@
+package com.nguyenna.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nguyenna.authservice.repository.TokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process view of {@code table_token}. Active tokens are cached until their JWT expiry, unknown tokens
+ * for a short negative TTL. Logouts are broadcast on {@link #TOKEN_EVENT_TOPIC} so every AuthService node
+ * drops the token, not only the one that handled the request.
+ */
+@Service
+public class TokenCache {
+
+    public static final String TOKEN_EVENT_TOPIC = "token-event";
+
+    private record CachedToken(boolean active, long expiresAt) {}
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.token-cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${security.token-cache.negative-ttl-ms:60000}")
+    private long negativeTtlMs;
+
+    @Value("${security.token-cache.broadcast-enabled:true}")
+    private boolean broadcastEnabled;
+
+    private Cache<String, CachedToken> cache;
+
+    private final Logger logger = LoggerFactory.getLogger(TokenCache.class);
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, CachedToken value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, CachedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, CachedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenCache");
+    }
+
+    public boolean isActive(String token, long tokenExpiresAt) {
+        return cache.get(token, t -> load(t, tokenExpiresAt)).active();
+    }
+
+    public void onLogin(String token, long tokenExpiresAt) {
+        cache.put(token, new CachedToken(true, tokenExpiresAt));
+    }
+
+    public void onLogout(String token) {
+        invalidate(token);
+        if (!broadcastEnabled) return;
+
+        try {
+            kafkaTemplate.send(TOKEN_EVENT_TOPIC, token);
+        } catch (Exception e) {
+            logger.warn("Could not broadcast token invalidation: " + e.getLocalizedMessage());
+        }
+    }
+
+    public void invalidate(String token) {
+        cache.put(token, new CachedToken(false, System.currentTimeMillis() + negativeTtlMs));
+    }
+
+    private CachedToken load(String token, long tokenExpiresAt) {
+        if (tokenRepository.existsById(token)) return new CachedToken(true, tokenExpiresAt);
+
+        return new CachedToken(false, Math.min(tokenExpiresAt, System.currentTimeMillis() + negativeTtlMs));
+    }
+}
@@ -1,26 +1,67 @@
 package com.nguyenna.authservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nguyenna.authservice.repository.UserRepository;
 import com.nguyenna.authservice.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Optional;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    // Spring Security erases the password on the UserDetails it authenticated, so only this snapshot is
+    // cached and every caller gets a fresh principal built from it
+    private record CachedUser(String email, String password) {}
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.user-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private Cache<String, CachedUser> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetailsCache");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cachedUser = cache.get(username, this::loadUser);
+        if (cachedUser == null) throw new UsernameNotFoundException("No user found with this username " + username);
+        return new org.springframework.security.core.userdetails.User(cachedUser.email(), cachedUser.password(), new ArrayList<>());
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    private CachedUser loadUser(String username) {
         Optional<User> optionalUser = userRepository.findByEmail(username);
-        if (optionalUser.isEmpty()) throw new UsernameNotFoundException("No user found with this username " + username);
-        return new org.springframework.security.core.userdetails.User(optionalUser.get().getEmail(), optionalUser.get().getPassword(), new ArrayList<>());
+        return optionalUser.map(user -> new CachedUser(user.getEmail(), user.getPassword())).orElse(null);
     }
 }
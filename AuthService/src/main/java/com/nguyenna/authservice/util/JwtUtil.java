@@ -1,31 +1,49 @@
 package com.nguyenna.authservice.util;
 
-import com.nguyenna.authservice.entity.Token;
-import com.nguyenna.authservice.repository.TokenRepository;
+import com.nguyenna.authservice.entity.User;
+import com.nguyenna.authservice.service.TokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    private static final String PARSED_TOKEN_ATTRIBUTE = JwtUtil.class.getName() + ".parsedToken";
+
+    private record ParsedToken(String token, Claims claims) {}
+
     @Autowired
-    private TokenRepository tokenRepository;
+    private TokenCache tokenCache;
     
     @Value("${security.jwt.secret-key}")
     private String SECRET_KEY;
+
+    private Key signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(SECRET_KEY));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
     
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
@@ -35,43 +53,53 @@ public class JwtUtil {
         return getClaimFromToken(token, Claims::getExpiration);
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, userDetails.getUsername());
+        claims.put("userId", user.getId());
+        claims.put("role", user.getRole());
+        return doGenerateToken(claims, user.getEmail());
     }
 
     private String doGenerateToken(Map<String, Object> claims, String subject) {
         return Jwts.builder().setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 30L * 24 * 60 * 60 * 1000))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        Optional<Token> tokenData = tokenRepository.findById(token);
-
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token) && tokenData.isPresent() && tokenData.get().getToken().equals(token));
+        return validateToken(token, parseClaims(token), userDetails);
     }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+    public boolean validateToken(String token, Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims) && tokenCache.isActive(token, claims.getExpiration().getTime()));
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+    /**
+     * Verifies and parses the token. Within an HTTP request the result is kept as a request attribute, so
+     * the filter, the service and the claim getters above share a single parse of the same token.
+     */
+    public Claims parseClaims(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return jwtParser.parseClaimsJws(token).getBody();
+
+        Object cached = attributes.getAttribute(PARSED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof ParsedToken parsedToken && parsedToken.token().equals(token)) return parsedToken.claims();
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        attributes.setAttribute(PARSED_TOKEN_ATTRIBUTE, new ParsedToken(token, claims), RequestAttributes.SCOPE_REQUEST);
+        return claims;
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64URL.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
+        final Claims claims = parseClaims(token);
+        return claimsResolver.apply(claims);
     }
 }
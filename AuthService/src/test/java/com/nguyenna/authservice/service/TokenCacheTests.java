@@ -0,0 +1,68 @@
+package com.nguyenna.authservice.service;
+
+import com.nguyenna.authservice.repository.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenCacheTests {
+
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final long expiresAt = System.currentTimeMillis() + 3_600_000;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenCache, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(tokenCache, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(tokenCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(tokenCache, "negativeTtlMs", 60_000L);
+        ReflectionTestUtils.setField(tokenCache, "broadcastEnabled", true);
+        tokenCache.init();
+    }
+
+    @Test
+    void repeatedLookupsHitTheDatabaseOnce() {
+        when(tokenRepository.existsById("active")).thenReturn(true);
+
+        assertTrue(tokenCache.isActive("active", expiresAt));
+        assertTrue(tokenCache.isActive("active", expiresAt));
+        assertFalse(tokenCache.isActive("unknown", expiresAt));
+        assertFalse(tokenCache.isActive("unknown", expiresAt));
+
+        verify(tokenRepository, times(1)).existsById("active");
+        verify(tokenRepository, times(1)).existsById("unknown");
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "tokenCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void loginAndLogoutUpdateTheCache() {
+        tokenCache.onLogin("token", expiresAt);
+        assertTrue(tokenCache.isActive("token", expiresAt));
+
+        tokenCache.onLogout("token");
+        assertFalse(tokenCache.isActive("token", expiresAt));
+
+        verify(tokenRepository, never()).existsById("token");
+        verify(kafkaTemplate).send(TokenCache.TOKEN_EVENT_TOPIC, "token");
+    }
+}
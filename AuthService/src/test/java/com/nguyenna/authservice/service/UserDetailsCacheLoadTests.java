@@ -0,0 +1,112 @@
+package com.nguyenna.authservice.service;
+
+import com.nguyenna.authservice.entity.User;
+import com.nguyenna.authservice.entity.UserCacheEvictionListener;
+import com.nguyenna.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserDetailsCacheLoadTests {
+
+    private static final int USERS = 50;
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 5_000;
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findByEmail(anyString())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            String email = invocation.getArgument(0);
+            if (email.startsWith("missing")) return Optional.empty();
+            return Optional.of(User.builder().email(email).password("hash-" + email).role("USER").build());
+        });
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userDetailsService, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(userDetailsService, "ttlMs", 300_000L);
+        userDetailsService.init();
+    }
+
+    @Test
+    void validatedRequestsStopHittingTheDatabase() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    String email = "user" + ((thread + i) % USERS) + "@mail.com";
+                    // JwtAuthenticationFilter and AuthServiceImpl.validateToken each load the principal
+                    userDetailsService.loadUserByUsername(email);
+                    userDetailsService.loadUserByUsername(email);
+                }
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        int requests = THREADS * REQUESTS_PER_THREAD;
+        System.out.printf("user lookups: %d requests, %d DB queries, %.4f queries/request (uncached: 2.0)%n",
+                requests, queries.get(), (double) queries.get() / requests);
+        assertEquals(USERS, queries.get());
+    }
+
+    @Test
+    void cachedPrincipalSurvivesCredentialErasureAndEviction() {
+        org.springframework.security.core.userdetails.User first =
+                (org.springframework.security.core.userdetails.User) userDetailsService.loadUserByUsername("a@mail.com");
+        first.eraseCredentials();
+        assertEquals("hash-a@mail.com", userDetailsService.loadUserByUsername("a@mail.com").getPassword());
+        assertEquals(1, queries.get());
+
+        UserCacheEvictionListener listener = new UserCacheEvictionListener();
+        ReflectionTestUtils.setField(listener, "userDetailsService", userDetailsService);
+        listener.evict(User.builder().email("a@mail.com").build());
+        userDetailsService.loadUserByUsername("a@mail.com");
+        assertEquals(2, queries.get());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing@mail.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing@mail.com"));
+        assertTrue(queries.get() >= 4);
+    }
+
+    @Test
+    void changingTheEmailEvictsThePrincipalUnderTheOldOne() {
+        userDetailsService.loadUserByUsername("old@mail.com");
+        assertEquals(1, queries.get());
+
+        UserCacheEvictionListener listener = new UserCacheEvictionListener();
+        ReflectionTestUtils.setField(listener, "userDetailsService", userDetailsService);
+        User user = User.builder().email("old@mail.com").build();
+        listener.remember(user);
+        user.setEmail("new@mail.com");
+        listener.evict(user);
+
+        userDetailsService.loadUserByUsername("old@mail.com");
+        assertEquals(2, queries.get());
+    }
+}
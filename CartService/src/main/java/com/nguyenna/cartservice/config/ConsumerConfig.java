@@ -0,0 +1,34 @@
+package com.nguyenna.cartservice.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nguyenna.cartservice.service.OnMessageReceived;
+import com.nguyenna.cartservice.service.StockCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListener;
+
+@Configuration
+public class ConsumerConfig {
+
+    @Autowired
+    private StockCache stockCache;
+
+    @Autowired
+    private OnMessageReceived onMessageReceivedListener;
+
+    @KafkaListener(topics = "product-events", groupId = "cart-group", properties = "auto.offset.reset=earliest")
+    public void onProductEventReceived(String event) throws JsonProcessingException {
+        onMessageReceivedListener.onEvent(event);
+    }
+
+    // A random group per node, so every CartService instance drops its own copy of the entry
+    @KafkaListener(
+            topics = StockCache.INVENTORY_EVENT_TOPIC,
+            groupId = "cart-stock-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${cart.stock-cache.events-enabled:true}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onInventoryEventReceived(String productId) {
+        stockCache.invalidate(Long.parseLong(productId));
+    }
+}
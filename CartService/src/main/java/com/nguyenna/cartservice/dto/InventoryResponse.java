@@ -10,4 +10,5 @@ import lombok.NoArgsConstructor;
 public class InventoryResponse {
     private long productId;
     private int productCount;
-}
\ No newline at end of file
+    private String message;
+}
@@ -0,0 +1,4 @@
+package com.nguyenna.cartservice.dto;
+
+public record TokenClaims(long userId, String email, String role, String tokenId) {
+}
@@ -13,4 +13,5 @@ public class UserResponse {
     private long id;
     private String name;
     private String email;
+    private String role;
 }
@@ -0,0 +1,26 @@
+package com.nguyenna.cartservice.dto.kafka;
+
+import com.nguyenna.cartservice.dto.product.Image;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEvent {
+    private int version;
+    private ProductEventType type;
+    private long productId;
+    private String title;
+    private String description;
+    private double price;
+    private int discount;
+    private List<Image> images;
+    private String createdAt;
+    private String updatedAt;
+}
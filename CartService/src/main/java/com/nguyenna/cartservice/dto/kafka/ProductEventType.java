@@ -0,0 +1,5 @@
+package com.nguyenna.cartservice.dto.kafka;
+
+public enum ProductEventType {
+    CREATED, UPDATED, DELETED
+}
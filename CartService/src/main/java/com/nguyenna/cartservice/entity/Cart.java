@@ -1,16 +1,20 @@
 package com.nguyenna.cartservice.entity;
 
+import com.nguyenna.cartservice.dto.product.Image;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_cart_product_id", columnList = "productId"))
 public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,4 +24,15 @@ public class Cart {
     private int itemCount;
     private String createdAt;
     private String updatedAt;
+
+    // Snapshot of the product's display fields, kept fresh from ProductService events
+    private String title;
+    private String description;
+    private double price;
+    private int discount;
+    @Convert(converter = ImageListConverter.class)
+    @Column(columnDefinition = "TEXT")
+    private List<Image> images;
+    private String productCreatedAt;
+    private String productUpdatedAt;
 }
@@ -0,0 +1,22 @@
+package com.nguyenna.cartservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Which instance currently serves carts from memory, and until when. Another instance may only take over once
+ * the lease has expired.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class CartStoreLease {
+    @Id
+    private String name;
+    private String owner;
+    private long expiresAt;
+}
@@ -0,0 +1,43 @@
+package com.nguyenna.cartservice.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nguyenna.cartservice.dto.product.Image;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Stores a cart line's image snapshot as one JSON column, so reading a cart stays a single-table query.
+ */
+@Converter
+public class ImageListConverter implements AttributeConverter<List<Image>, String> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader reader = objectMapper.readerFor(new TypeReference<List<Image>>() {});
+    private static final ObjectWriter writer = objectMapper.writerFor(new TypeReference<List<Image>>() {});
+
+    @Override
+    public String convertToDatabaseColumn(List<Image> images) {
+        if (images == null) return null;
+        try {
+            return writer.writeValueAsString(images);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public List<Image> convertToEntityAttribute(String json) {
+        if (json == null) return null;
+        try {
+            return reader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
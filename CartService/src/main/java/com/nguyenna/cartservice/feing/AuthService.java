@@ -1,8 +1,8 @@
 package com.nguyenna.cartservice.feing;
 
-import com.nguyenna.cartservice.dto.ApiResponse;
+import com.nguyenna.cartservice.dto.RevokedTokenResponse;
 import com.nguyenna.cartservice.dto.Token;
-import com.nguyenna.cartservice.dto.UserResponse;
+import com.nguyenna.cartservice.dto.TokenVerificationResponse;
 import com.nguyenna.cartservice.util.AppConstants;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
@@ -10,14 +10,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @Service
 @FeignClient(name = "AUTH-SERVICE", url = AppConstants.BASE_URL)
 public interface AuthService {
 
-    @PostMapping("api/auth/validate-token")
-    ResponseEntity<ApiResponse> validateToken(@RequestBody Token token);
+    @PostMapping("api/auth/verify")
+    ResponseEntity<TokenVerificationResponse> verifyToken(@RequestBody Token token);
 
-    @GetMapping("api/auth/user")
-    ResponseEntity<UserResponse> getUser(@RequestBody Token token);
+    @GetMapping("api/auth/revoked-tokens")
+    ResponseEntity<List<RevokedTokenResponse>> getRevokedTokens(@RequestParam("since") long since);
 }
@@ -2,11 +2,13 @@ package com.nguyenna.cartservice.feing;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import feign.FeignException;
 import feign.Response;
-import feign.Util;
 import feign.codec.ErrorDecoder;
+import jakarta.annotation.PostConstruct;
 import lombok.SneakyThrows;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -15,6 +17,16 @@ import java.util.Map;
 @Component
 public class FeignErrorDecoder implements ErrorDecoder {
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectReader responseBodyReader;
+
+    @PostConstruct
+    public void init() {
+        responseBodyReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+    }
+
     @SneakyThrows
     @Override
     public Exception decode(String s, Response response) {
@@ -29,8 +41,6 @@ public class FeignErrorDecoder implements ErrorDecoder {
     }
 
     private Map<String, Object> parseResponseBody(Response response) throws IOException {
-        String responseBody = Util.toString(response.body().asReader());
-        ObjectMapper objectMapper = new ObjectMapper();
-        return objectMapper.readValue(responseBody, new TypeReference<>() {});
+        return responseBodyReader.readValue(response.body().asInputStream());
     }
 }
@@ -1,6 +1,5 @@
 package com.nguyenna.cartservice.feing;
 
-import com.nguyenna.cartservice.dto.ApiResponse;
 import com.nguyenna.cartservice.dto.InventoryResponse;
 import com.nguyenna.cartservice.util.AppConstants;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -13,9 +12,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 @FeignClient(name = "INVENTORY-SERVICE", url = AppConstants.BASE_URL)
 public interface InventoryService {
 
+    /**
+     * Inventory answers 200 with either the stock row or an {@code ApiResponse} error, so both shapes are
+     * decoded into one {@link InventoryResponse}; a non-null {@code message} means the lookup failed.
+     */
     @GetMapping("/api/inventory/{id}")
     ResponseEntity<InventoryResponse> getProduct(@PathVariable long id);
-
-    @GetMapping("/api/inventory/{id}")
-    ResponseEntity<ApiResponse> getProductError(@PathVariable long id);
 }
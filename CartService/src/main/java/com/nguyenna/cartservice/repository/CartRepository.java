@@ -1,7 +1,11 @@
 package com.nguyenna.cartservice.repository;
 
+import com.nguyenna.cartservice.dto.product.Image;
 import com.nguyenna.cartservice.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +21,22 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     void deleteCartByUserIdAndProductId(long userId, long productId);
 
     void deleteAllByUserId(long userId);
+
+    // A line snapshotted from a newer product version than the event is left alone
+    @Modifying
+    @Query("UPDATE Cart c SET c.title = :title, c.description = :description, c.price = :price, c.discount = :discount, " +
+            "c.images = :images, c.productCreatedAt = :createdAt, c.productUpdatedAt = :updatedAt " +
+            "WHERE c.productId = :productId AND (c.productUpdatedAt IS NULL OR c.productUpdatedAt <= :updatedAt)")
+    int updateProductSnapshot(@Param("productId") long productId,
+                              @Param("title") String title,
+                              @Param("description") String description,
+                              @Param("price") double price,
+                              @Param("discount") int discount,
+                              @Param("images") List<Image> images,
+                              @Param("createdAt") String createdAt,
+                              @Param("updatedAt") String updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.productId = :productId")
+    int deleteAllByProductId(@Param("productId") long productId);
 }
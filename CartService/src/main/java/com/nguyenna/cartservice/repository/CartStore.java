@@ -0,0 +1,31 @@
+package com.nguyenna.cartservice.repository;
+
+import com.nguyenna.cartservice.dto.kafka.ProductEvent;
+import com.nguyenna.cartservice.entity.Cart;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage engine behind the cart service, selected with {@code cart.store}: {@code jpa} (default) goes straight
+ * to MySQL, {@code memory} keeps carts in process and writes them behind in batches.
+ */
+public interface CartStore {
+
+    List<Cart> findCartByUserId(long userId);
+
+    Optional<Cart> findCartByUserIdAndProductId(long userId, long productId);
+
+    void save(Cart cart);
+
+    void deleteCartByUserIdAndProductId(long userId, long productId);
+
+    void deleteAllByUserId(long userId);
+
+    /**
+     * Refreshes the product snapshot on every cart line holding the product.
+     */
+    void updateProductSnapshot(ProductEvent productEvent);
+
+    void deleteAllByProductId(long productId);
+}
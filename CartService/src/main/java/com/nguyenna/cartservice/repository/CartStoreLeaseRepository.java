@@ -0,0 +1,19 @@
+package com.nguyenna.cartservice.repository;
+
+import com.nguyenna.cartservice.entity.CartStoreLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CartStoreLeaseRepository extends JpaRepository<CartStoreLease, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM CartStoreLease l WHERE l.name = :name")
+    Optional<CartStoreLease> lockByName(@Param("name") String name);
+}
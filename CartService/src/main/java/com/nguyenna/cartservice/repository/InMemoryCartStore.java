@@ -0,0 +1,404 @@
+package com.nguyenna.cartservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.cartservice.dto.kafka.ProductEvent;
+import com.nguyenna.cartservice.entity.Cart;
+import com.nguyenna.cartservice.entity.CartStoreLease;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each user's cart lines in process, loaded from MySQL on first access. Every change is a map update plus
+ * one line appended to a local journal; the touched line is marked dirty and written back with the other dirty
+ * lines in one transaction every {@code cart.store.flush-ms}, so repeated clicks on a line coalesce into a single
+ * write of its latest state. Journal segments still on disk at startup are replayed into MySQL before serving.
+ * <p>
+ * Single instance only: a second instance would serve its own stale copy of the same carts. Startup takes a
+ * {@link CartStoreLease} in MySQL, renewed every {@code cart.store.lease-renew-ms}, and fails while another
+ * {@code cart.store.instance-id} holds an unexpired one. A restart under the same id takes its lease back at once.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+    private static final String LEASE = "memory-cart-store";
+
+    private record LineKey(long userId, long productId) {}
+
+    /**
+     * One journaled line state; a null {@code line} means the line was removed.
+     */
+    private record JournalEntry(long userId, long productId, Cart line) {}
+
+    private static class UserCart {
+        private final Map<Long, Cart> lines = new LinkedHashMap<>();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+    }
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartStoreLeaseRepository cartStoreLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cart.store.journal-dir:data/cart-journal}")
+    private String journalDir;
+
+    @Value("${cart.store.idle-evict-ms:1800000}")
+    private long idleEvictMs;
+
+    @Value("${cart.store.instance-id:${HOSTNAME:cart-service}}")
+    private String instanceId;
+
+    @Value("${cart.store.lease-ms:30000}")
+    private long leaseMs;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    private final Map<LineKey, UserCart> dirtyLines = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private final AtomicInteger segmentSequence = new AtomicInteger();
+    private final List<Path> retainedSegments = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+    private BufferedWriter journal;
+    private Path journalSegment;
+
+    private final Logger logger = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    @PostConstruct
+    public void init() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        renewLease();
+        Files.createDirectories(Paths.get(journalDir));
+        recover();
+        openSegment();
+    }
+
+    @Override
+    public List<Cart> findCartByUserId(long userId) {
+        while (true) {
+            UserCart userCart = userCart(userId);
+            synchronized (userCart) {
+                if (userCart.evicted) continue;
+                List<Cart> lines = new ArrayList<>(userCart.lines.size());
+                for (Cart line : userCart.lines.values()) lines.add(line.toBuilder().build());
+
+                return lines;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Cart> findCartByUserIdAndProductId(long userId, long productId) {
+        while (true) {
+            UserCart userCart = userCart(userId);
+            synchronized (userCart) {
+                if (userCart.evicted) continue;
+
+                return Optional.ofNullable(userCart.lines.get(productId)).map(line -> line.toBuilder().build());
+            }
+        }
+    }
+
+    @Override
+    public void save(Cart cart) {
+        while (true) {
+            UserCart userCart = userCart(cart.getUserId());
+            synchronized (userCart) {
+                if (userCart.evicted) continue;
+                Cart line = cart.toBuilder().build();
+                Cart current = userCart.lines.get(cart.getProductId());
+                // Lines added since the last flush have no row id yet; keep the one assigned by the write-behind
+                if (line.getId() == 0 && current != null) line.setId(current.getId());
+                userCart.lines.put(cart.getProductId(), line);
+                record(userCart, cart.getUserId(), cart.getProductId(), line);
+
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void deleteCartByUserIdAndProductId(long userId, long productId) {
+        while (true) {
+            UserCart userCart = userCart(userId);
+            synchronized (userCart) {
+                if (userCart.evicted) continue;
+                if (userCart.lines.remove(productId) != null) record(userCart, userId, productId, null);
+
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllByUserId(long userId) {
+        while (true) {
+            UserCart userCart = userCart(userId);
+            synchronized (userCart) {
+                if (userCart.evicted) continue;
+                for (Long productId : new ArrayList<>(userCart.lines.keySet())) record(userCart, userId, productId, null);
+                userCart.lines.clear();
+
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void updateProductSnapshot(ProductEvent productEvent) {
+        // Carts not in memory are refreshed in MySQL directly; loaded lines are updated and journaled like any change
+        transactionTemplate.executeWithoutResult(status -> cartRepository.updateProductSnapshot(
+                productEvent.getProductId(),
+                productEvent.getTitle(),
+                productEvent.getDescription(),
+                productEvent.getPrice(),
+                productEvent.getDiscount(),
+                productEvent.getImages(),
+                productEvent.getCreatedAt(),
+                productEvent.getUpdatedAt()
+        ));
+        long productId = productEvent.getProductId();
+        carts.forEach((userId, userCart) -> {
+            synchronized (userCart) {
+                Cart line = userCart.lines.get(productId);
+                if (line == null) return;
+                if (line.getProductUpdatedAt() != null && productEvent.getUpdatedAt() != null && line.getProductUpdatedAt().compareTo(productEvent.getUpdatedAt()) > 0) return;
+
+                line.setTitle(productEvent.getTitle());
+                line.setDescription(productEvent.getDescription());
+                line.setPrice(productEvent.getPrice());
+                line.setDiscount(productEvent.getDiscount());
+                line.setImages(productEvent.getImages());
+                line.setProductCreatedAt(productEvent.getCreatedAt());
+                line.setProductUpdatedAt(productEvent.getUpdatedAt());
+                record(userCart, userId, productId, line);
+            }
+        });
+    }
+
+    @Override
+    public void deleteAllByProductId(long productId) {
+        transactionTemplate.executeWithoutResult(status -> cartRepository.deleteAllByProductId(productId));
+        carts.forEach((userId, userCart) -> {
+            synchronized (userCart) {
+                if (userCart.lines.remove(productId) != null) record(userCart, userId, productId, null);
+            }
+        });
+    }
+
+    /**
+     * Writes the latest state of every dirty line in one transaction, then drops the journal segment that
+     * covered those changes. Idle carts with nothing pending are evicted afterwards.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-ms:500}")
+    public void flush() {
+        Map<LineKey, UserCart> batch = new HashMap<>();
+        Path flushedSegment;
+        synchronized (journalLock) {
+            if (journal == null) return;
+            for (LineKey key : new ArrayList<>(dirtyLines.keySet())) {
+                UserCart userCart = dirtyLines.remove(key);
+                if (userCart != null) batch.put(key, userCart);
+            }
+
+            flushedSegment = journalSegment;
+            if (!batch.isEmpty()) {
+                try {
+                    journal.close();
+                    openSegment();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            Map<LineKey, Cart> snapshot = new HashMap<>();
+            batch.forEach((key, userCart) -> {
+                synchronized (userCart) {
+                    Cart line = userCart.lines.get(key.productId());
+                    snapshot.put(key, line == null ? null : line.toBuilder().build());
+                }
+            });
+
+            try {
+                Map<LineKey, Cart> saved = transactionTemplate.execute(status -> write(snapshot));
+                assert saved != null;
+                saved.forEach((key, line) -> {
+                    UserCart userCart = batch.get(key);
+                    synchronized (userCart) {
+                        Cart current = userCart.lines.get(key.productId());
+                        if (current != null && current.getId() == 0) current.setId(line.getId());
+                    }
+                });
+                // Lines of earlier failed flushes were marked dirty again and written here, so their segments are done too
+                synchronized (journalLock) {
+                    for (Path segment : retainedSegments) Files.deleteIfExists(segment);
+                    retainedSegments.clear();
+                }
+                Files.deleteIfExists(flushedSegment);
+            } catch (Exception e) {
+                // The segment stays on disk, so a crash before the next successful flush still replays these lines
+                logger.error("Failed to write back cart lines: " + e.getMessage());
+                synchronized (journalLock) {
+                    retainedSegments.add(flushedSegment);
+                    batch.forEach(dirtyLines::putIfAbsent);
+                }
+            }
+        }
+
+        evictIdleCarts();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        synchronized (journalLock) {
+            if (journal == null) return;
+            journal.close();
+            journal = null;
+            if (dirtyLines.isEmpty()) Files.deleteIfExists(journalSegment);
+        }
+        // Lets another instance take over right away instead of waiting for the lease to run out
+        transactionTemplate.executeWithoutResult(status -> cartStoreLeaseRepository.lockByName(LEASE)
+                .filter(lease -> lease.getOwner().equals(instanceId))
+                .ifPresent(lease -> lease.setExpiresAt(0)));
+    }
+
+    /**
+     * Takes or extends the lease; throws {@link IllegalStateException} while another instance holds it.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.lease-renew-ms:10000}", initialDelayString = "${cart.store.lease-renew-ms:10000}")
+    public void renewLease() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long now = System.currentTimeMillis();
+            CartStoreLease lease = cartStoreLeaseRepository.lockByName(LEASE).orElseGet(() -> new CartStoreLease(LEASE, instanceId, 0));
+            if (!lease.getOwner().equals(instanceId) && lease.getExpiresAt() > now) {
+                throw new IllegalStateException("cart.store=memory is single instance only, and " + lease.getOwner() + " holds the cart store lease");
+            }
+
+            lease.setOwner(instanceId);
+            lease.setExpiresAt(now + leaseMs);
+            cartStoreLeaseRepository.save(lease);
+        });
+    }
+
+    private UserCart userCart(long userId) {
+        UserCart userCart = carts.computeIfAbsent(userId, id -> {
+            UserCart loaded = new UserCart();
+            for (Cart line : cartRepository.findCartByUserId(id)) loaded.lines.put(line.getProductId(), line);
+
+            return loaded;
+        });
+        userCart.lastAccess = System.currentTimeMillis();
+
+        return userCart;
+    }
+
+    private void record(UserCart userCart, long userId, long productId, Cart line) {
+        synchronized (journalLock) {
+            dirtyLines.put(new LineKey(userId, productId), userCart);
+            try {
+                journal.write(objectMapper.writeValueAsString(new JournalEntry(userId, productId, line)));
+                journal.newLine();
+                journal.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Map<LineKey, Cart> write(Map<LineKey, Cart> lines) {
+        Map<LineKey, Cart> saved = new HashMap<>();
+        for (Map.Entry<LineKey, Cart> entry : lines.entrySet()) {
+            LineKey key = entry.getKey();
+            Cart line = entry.getValue();
+            if (line == null) {
+                cartRepository.deleteCartByUserIdAndProductId(key.userId(), key.productId());
+                continue;
+            }
+
+            if (line.getId() == 0) {
+                cartRepository.findCartByUserIdAndProductId(key.userId(), key.productId()).ifPresent(row -> line.setId(row.getId()));
+            }
+            saved.put(key, cartRepository.save(line));
+        }
+
+        return saved;
+    }
+
+    private void evictIdleCarts() {
+        long idleBefore = System.currentTimeMillis() - idleEvictMs;
+        Set<Long> dirtyUsers = new HashSet<>();
+        for (LineKey key : dirtyLines.keySet()) dirtyUsers.add(key.userId());
+
+        carts.forEach((userId, userCart) -> {
+            synchronized (userCart) {
+                if (userCart.lastAccess >= idleBefore || dirtyUsers.contains(userId)) return;
+                userCart.evicted = true;
+                carts.remove(userId, userCart);
+            }
+        });
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(Paths.get(journalDir))) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+        if (segments.isEmpty()) return;
+
+        // Entries are full line states, so replaying only the last one per line is enough and is idempotent
+        Map<LineKey, Cart> lines = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            for (String json : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                try {
+                    JournalEntry entry = objectMapper.readValue(json, JournalEntry.class);
+                    lines.put(new LineKey(entry.userId(), entry.productId()), entry.line());
+                } catch (IOException e) {
+                    // A torn last line from a crash mid-write is skipped
+                    logger.warn("Skipping unreadable cart journal entry in " + segment.getFileName());
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> write(lines));
+        for (Path segment : segments) Files.delete(segment);
+        logger.info("Replayed " + lines.size() + " cart line(s) from " + segments.size() + " journal segment(s)");
+    }
+
+    private void openSegment() throws IOException {
+        journalSegment = Paths.get(journalDir, String.format("segment-%013d-%06d.log", System.currentTimeMillis(), segmentSequence.incrementAndGet()));
+        journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalSegment.toFile(), true), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.nguyenna.cartservice.repository;
+
+import com.nguyenna.cartservice.dto.kafka.ProductEvent;
+import com.nguyenna.cartservice.entity.Cart;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Goes straight to MySQL. The bulk deletes and updates open their own transaction, so callers need none.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Override
+    public List<Cart> findCartByUserId(long userId) {
+        return cartRepository.findCartByUserId(userId);
+    }
+
+    @Override
+    public Optional<Cart> findCartByUserIdAndProductId(long userId, long productId) {
+        return cartRepository.findCartByUserIdAndProductId(userId, productId);
+    }
+
+    @Override
+    public void save(Cart cart) {
+        cartRepository.save(cart);
+    }
+
+    @Override
+    @Transactional
+    public void deleteCartByUserIdAndProductId(long userId, long productId) {
+        cartRepository.deleteCartByUserIdAndProductId(userId, productId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByUserId(long userId) {
+        cartRepository.deleteAllByUserId(userId);
+    }
+
+    @Override
+    @Transactional
+    public void updateProductSnapshot(ProductEvent productEvent) {
+        cartRepository.updateProductSnapshot(
+                productEvent.getProductId(),
+                productEvent.getTitle(),
+                productEvent.getDescription(),
+                productEvent.getPrice(),
+                productEvent.getDiscount(),
+                productEvent.getImages(),
+                productEvent.getCreatedAt(),
+                productEvent.getUpdatedAt()
+        );
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByProductId(long productId) {
+        cartRepository.deleteAllByProductId(productId);
+    }
+}
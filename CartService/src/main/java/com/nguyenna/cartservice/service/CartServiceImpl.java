@@ -1,18 +1,19 @@
 package com.nguyenna.cartservice.service;
 
-import com.nguyenna.cartservice.repository.CartRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.cartservice.repository.CartStore;
 import com.nguyenna.cartservice.dto.ApiResponse;
 import com.nguyenna.cartservice.dto.InventoryResponse;
-import com.nguyenna.cartservice.dto.Token;
-import com.nguyenna.cartservice.dto.UserResponse;
+import com.nguyenna.cartservice.dto.TokenClaims;
+import com.nguyenna.cartservice.dto.kafka.ProductEvent;
+import com.nguyenna.cartservice.dto.kafka.ProductEventType;
 import com.nguyenna.cartservice.dto.product.Product;
 import com.nguyenna.cartservice.entity.Cart;
-import com.nguyenna.cartservice.feing.AuthService;
-import com.nguyenna.cartservice.feing.InventoryService;
 import com.nguyenna.cartservice.feing.ProductService;
 import com.nguyenna.cartservice.util.DateTimeUtil;
+import com.nguyenna.cartservice.util.UserResolver;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,29 +22,31 @@ import org.springframework.stereotype.Service;
 import java.util.*;
 
 @Service
-public class CartServiceImpl implements CartService {
+public class CartServiceImpl implements CartService, OnMessageReceived {
 
     @Autowired
-    private AuthService authService;
+    private UserResolver userResolver;
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private InventoryService inventoryService;
+    private StockCache stockCache;
 
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     public ResponseEntity<?> addProduct(HttpServletRequest request, Cart cart) {
         long userId = getUserId(request);
         if (userId == -1) return userNotFound();
-        Optional<Cart> optionalCart = cartRepository.findCartByUserIdAndProductId(userId, cart.getProductId());
+        Optional<Cart> optionalCart = cartStore.findCartByUserIdAndProductId(userId, cart.getProductId());
 
-        ApiResponse apiResponse = inventoryService.getProductError(cart.getProductId()).getBody();
-        if (apiResponse.message() != null) return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
-        InventoryResponse inventoryResponse = inventoryService.getProduct(cart.getProductId()).getBody();
+        InventoryResponse inventoryResponse = stockCache.get(cart.getProductId());
+        if (inventoryResponse.getMessage() != null) return new ResponseEntity<>(new ApiResponse(false, inventoryResponse.getMessage()), HttpStatus.BAD_REQUEST);
 
         String creationTime = DateTimeUtil.getCurrentDateTime();
         Cart newCart;
@@ -53,6 +56,9 @@ public class CartServiceImpl implements CartService {
         }
 
         if (optionalCart.isEmpty()) {
+            List<Product> productList = productService.getCartProducts(List.of(cart.getProductId())).getBody();
+            if (productList == null || productList.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found"), HttpStatus.BAD_REQUEST);
+
             newCart = Cart.builder()
                     .productId(cart.getProductId())
                     .userId(userId)
@@ -60,20 +66,16 @@ public class CartServiceImpl implements CartService {
                     .createdAt(creationTime)
                     .updatedAt(creationTime)
                     .build();
+            applySnapshot(newCart, productList.get(0));
         } else {
-            Cart c = optionalCart.get();
-            newCart = Cart.builder()
-                    .id(c.getId())
-                    .productId(c.getProductId())
-                    .userId(c.getUserId())
-                    .itemCount(cart.getItemCount() + c.getItemCount())
-                    .createdAt(c.getCreatedAt())
+            newCart = optionalCart.get().toBuilder()
+                    .itemCount(itemCount)
                     .updatedAt(creationTime)
                     .build();
         }
 
         try {
-            cartRepository.save(newCart);
+            cartStore.save(newCart);
             return new ResponseEntity<>(new ApiResponse(true, "Item added to cart successfully"), HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -83,15 +85,14 @@ public class CartServiceImpl implements CartService {
     @Override
     public ResponseEntity<?> increaseItem(HttpServletRequest request, long productId) {
         long userId = getUserId(request);
-        Optional<Cart> optionalCart = cartRepository.findCartByUserIdAndProductId(userId, productId);
+        Optional<Cart> optionalCart = cartStore.findCartByUserIdAndProductId(userId, productId);
         if (optionalCart.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Item not found"), HttpStatus.BAD_REQUEST);
 
         Cart cart = optionalCart.get();
         int itemCount = cart.getItemCount() + 1;
 
-        ApiResponse apiResponse = inventoryService.getProductError(cart.getProductId()).getBody();
-        if (apiResponse.message() != null) return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
-        InventoryResponse inventoryResponse = inventoryService.getProduct(cart.getProductId()).getBody();
+        InventoryResponse inventoryResponse = stockCache.get(cart.getProductId());
+        if (inventoryResponse.getMessage() != null) return new ResponseEntity<>(new ApiResponse(false, inventoryResponse.getMessage()), HttpStatus.BAD_REQUEST);
 
         if (itemCount > inventoryResponse.getProductCount()) {
             return new ResponseEntity<>(new ApiResponse(false, "Not enough item present in inventory"), HttpStatus.BAD_REQUEST);
@@ -101,7 +102,7 @@ public class CartServiceImpl implements CartService {
         cart.setUpdatedAt(DateTimeUtil.getCurrentDateTime());
 
         try {
-            cartRepository.save(cart);
+            cartStore.save(cart);
             return new ResponseEntity<>(new ApiResponse(true, "Item count increased by 1"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -109,16 +110,15 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public ResponseEntity<?> decreaseItem(HttpServletRequest request, long productId) {
         long userId = getUserId(request);
-        Optional<Cart> optionalCart = cartRepository.findCartByUserIdAndProductId(userId, productId);
+        Optional<Cart> optionalCart = cartStore.findCartByUserIdAndProductId(userId, productId);
         if (optionalCart.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Item not found"), HttpStatus.BAD_REQUEST);
         Cart cart = optionalCart.get();
         int count = cart.getItemCount() - 1;
         if (count == 0) {
             try {
-                cartRepository.deleteCartByUserIdAndProductId(userId, productId);
+                cartStore.deleteCartByUserIdAndProductId(userId, productId);
                 return new ResponseEntity<>(new ApiResponse(true, "Item has been removed"), HttpStatus.OK);
             } catch (Exception e) {
                 return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -129,7 +129,7 @@ public class CartServiceImpl implements CartService {
         cart.setUpdatedAt(DateTimeUtil.getCurrentDateTime());
 
         try {
-            cartRepository.save(cart);
+            cartStore.save(cart);
             return new ResponseEntity<>(new ApiResponse(true, "Item count decreased by 1"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -137,14 +137,13 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public ResponseEntity<?> removeItem(HttpServletRequest request, long productId) {
         long userId = getUserId(request);
-        Optional<Cart> optionalCart = cartRepository.findCartByUserIdAndProductId(userId, productId);
+        Optional<Cart> optionalCart = cartStore.findCartByUserIdAndProductId(userId, productId);
         if (optionalCart.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Item not found"), HttpStatus.BAD_REQUEST);
 
         try {
-            cartRepository.deleteCartByUserIdAndProductId(userId, productId);
+            cartStore.deleteCartByUserIdAndProductId(userId, productId);
             return new ResponseEntity<>(new ApiResponse(true, "Item removed from cart successfully"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -152,12 +151,11 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public ResponseEntity<?> deleteCart(HttpServletRequest request) {
         long userId = getUserId(request);
 
         try {
-            cartRepository.deleteAllByUserId(userId);
+            cartStore.deleteAllByUserId(userId);
             return new ResponseEntity<>(new ApiResponse(true, "Cart deleted successfully"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -178,10 +176,9 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public ResponseEntity<?> deleteCartById(long id) {
         try {
-            cartRepository.deleteAllByUserId(id);
+            cartStore.deleteAllByUserId(id);
             return new ResponseEntity<>(new ApiResponse(true, "Cart deleted successfully"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -189,32 +186,68 @@ public class CartServiceImpl implements CartService {
     }
 
     private List<Product> getCartItems(long userId) {
-        List<Cart> cartList = cartRepository.findCartByUserId(userId);
+        List<Cart> cartList = cartStore.findCartByUserId(userId);
         if (cartList.isEmpty()) return new ArrayList<>();
 
+        backfillSnapshots(cartList);
+
+        List<Product> productList = new ArrayList<>(cartList.size());
+        for (Cart item : cartList) {
+            if (item.getTitle() == null) continue;
+            productList.add(Product.builder()
+                    .id(item.getProductId())
+                    .title(item.getTitle())
+                    .description(item.getDescription())
+                    .price(item.getPrice())
+                    .discount(item.getDiscount())
+                    .itemCount(item.getItemCount())
+                    .images(item.getImages())
+                    .createdAt(item.getProductCreatedAt())
+                    .updatedAt(item.getProductUpdatedAt())
+                    .build());
+        }
 
-        List<Long> productIds = new ArrayList<>();
-        Map<Long, Integer> productCountMap = new HashMap<>();
+        return productList;
+    }
 
+    // Lines written before snapshots existed are filled from ProductService once, then served locally
+    private void backfillSnapshots(List<Cart> cartList) {
+        Map<Long, Cart> missing = new HashMap<>();
         for (Cart item : cartList) {
-            productIds.add(item.getProductId());
-            productCountMap.put(item.getProductId(), item.getItemCount());
+            if (item.getTitle() == null) missing.put(item.getProductId(), item);
         }
+        if (missing.isEmpty()) return;
 
-        List<Product> productList = productService.getCartProducts(productIds).getBody();
-        assert productList != null;
+        List<Product> productList = productService.getCartProducts(new ArrayList<>(missing.keySet())).getBody();
+        if (productList == null) return;
         for (Product product : productList) {
-            product.setItemCount(productCountMap.get(product.getId()));
+            Cart item = missing.get(product.getId());
+            applySnapshot(item, product);
+            cartStore.save(item);
         }
+    }
 
-        return productList;
+    private static void applySnapshot(Cart cart, Product product) {
+        cart.setTitle(product.getTitle());
+        cart.setDescription(product.getDescription());
+        cart.setPrice(product.getPrice());
+        cart.setDiscount(product.getDiscount());
+        cart.setImages(product.getImages());
+        cart.setProductCreatedAt(product.getCreatedAt());
+        cart.setProductUpdatedAt(product.getUpdatedAt());
+    }
+
+    @Override
+    public void onEvent(String event) throws JsonProcessingException {
+        ProductEvent productEvent = objectMapper.readValue(event, ProductEvent.class);
+        if (productEvent.getType() == ProductEventType.DELETED) cartStore.deleteAllByProductId(productEvent.getProductId());
+        else cartStore.updateProductSnapshot(productEvent);
     }
 
     private long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization").substring(7);
-        UserResponse user = authService.getUser(new Token(token)).getBody();
+        TokenClaims claims = userResolver.resolve(request);
 
-        return user == null ? -1 : user.getId();
+        return claims == null ? -1 : claims.userId();
     }
 
     private ResponseEntity<?> userNotFound() {
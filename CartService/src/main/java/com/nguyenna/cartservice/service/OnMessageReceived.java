@@ -0,0 +1,7 @@
+package com.nguyenna.cartservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+public interface OnMessageReceived {
+    void onEvent(String event) throws JsonProcessingException;
+}
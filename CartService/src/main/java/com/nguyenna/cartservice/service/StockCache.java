@@ -0,0 +1,57 @@
+package com.nguyenna.cartservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nguyenna.cartservice.dto.InventoryResponse;
+import com.nguyenna.cartservice.feing.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived read-through view of inventory stock for the add and increase paths. Entries expire after
+ * {@code cart.stock-cache.ttl-ms} and are dropped early when InventoryService announces a stock change.
+ * Failed calls are not cached, so an unavailable inventory is retried on the next click.
+ */
+@Service
+public class StockCache {
+
+    public static final String INVENTORY_EVENT_TOPIC = "inventory-event";
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.stock-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${cart.stock-cache.ttl-ms:2000}")
+    private long ttlMs;
+
+    private Cache<Long, InventoryResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stockCache");
+    }
+
+    public InventoryResponse get(long productId) {
+        return cache.get(productId, id -> inventoryService.getProduct(id).getBody());
+    }
+
+    public void invalidate(long productId) {
+        cache.invalidate(productId);
+    }
+}
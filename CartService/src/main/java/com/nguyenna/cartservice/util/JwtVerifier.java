@@ -0,0 +1,56 @@
+package com.nguyenna.cartservice.util;
+
+import com.nguyenna.cartservice.dto.TokenClaims;
+import com.nguyenna.cartservice.service.RevokedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies tokens issued by AuthService without calling it: HS256 signature and expiry are checked
+ * here, and logouts are picked up through {@link RevokedTokenCache}.
+ */
+@Component
+public class JwtVerifier {
+
+    @Autowired
+    private RevokedTokenCache revokedTokenCache;
+
+    @Value("${security.jwt.secret-key}")
+    private String secretKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(secretKey)))
+                .build();
+    }
+
+    /**
+     * @return the token claims, or {@code null} if the token is malformed, expired, revoked or was
+     * issued before AuthService started embedding the userId claim
+     */
+    public TokenClaims verify(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null || claims.getId() == null) return null;
+        if (revokedTokenCache.isRevoked(claims.getId())) return null;
+
+        return new TokenClaims(userId, claims.getSubject(), claims.get("role", String.class), claims.getId());
+    }
+}
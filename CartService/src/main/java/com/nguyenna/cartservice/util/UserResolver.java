@@ -0,0 +1,68 @@
+package com.nguyenna.cartservice.util;
+
+import com.nguyenna.cartservice.dto.Token;
+import com.nguyenna.cartservice.dto.TokenClaims;
+import com.nguyenna.cartservice.dto.TokenVerificationResponse;
+import com.nguyenna.cartservice.dto.UserResponse;
+import com.nguyenna.cartservice.feing.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the caller of the current request once and keeps the result as a request attribute, so
+ * {@code TokenValidationAspect} and the service share it. Tokens are verified locally by default;
+ * with {@code security.jwt.local-verification=false} AuthService is asked through its combined verify endpoint.
+ */
+@Component
+public class UserResolver {
+
+    private static final String RESOLVED_USER_ATTRIBUTE = UserResolver.class.getName() + ".resolvedUser";
+
+    private static final Object UNAUTHENTICATED = new Object();
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private AuthService authService;
+
+    @Value("${security.jwt.local-verification:true}")
+    private boolean localVerification;
+
+    /**
+     * @return the caller's claims, or {@code null} if the request carries no valid token
+     */
+    public TokenClaims resolve(HttpServletRequest request) {
+        Object resolved = request.getAttribute(RESOLVED_USER_ATTRIBUTE);
+        if (resolved == null) {
+            TokenClaims claims = resolve(getToken(request));
+            resolved = claims == null ? UNAUTHENTICATED : claims;
+            request.setAttribute(RESOLVED_USER_ATTRIBUTE, resolved);
+        }
+
+        return resolved instanceof TokenClaims claims ? claims : null;
+    }
+
+    private TokenClaims resolve(String token) {
+        if (token == null) return null;
+        if (localVerification) return jwtVerifier.verify(token);
+
+        try {
+            TokenVerificationResponse response = authService.verifyToken(new Token(token)).getBody();
+            if (response == null || !response.isValid() || response.getUser() == null) return null;
+
+            UserResponse user = response.getUser();
+            return new TokenClaims(user.getId(), user.getEmail(), user.getRole(), null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String getToken(HttpServletRequest request) {
+        String requestHeader = request.getHeader("Authorization");
+        if (requestHeader != null && requestHeader.startsWith("Bearer") && requestHeader.length() > 8) return requestHeader.substring(7);
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.nguyenna.cartservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.cartservice.dto.kafka.ProductEvent;
+import com.nguyenna.cartservice.dto.product.Image;
+import com.nguyenna.cartservice.entity.Cart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url = jdbc:h2:mem:cart;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName = org.h2.Driver",
+        "spring.datasource.username = sa",
+        "spring.datasource.password = ",
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStoreTests {
+
+    private static final String JOURNAL_DIR = "target/cart-journal";
+    private static final int USERS = 16;
+    private static final int PRODUCTS = 5;
+    private static final int CLICKS_PER_LINE = 40;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartStoreLeaseRepository cartStoreLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        FileSystemUtils.deleteRecursively(Paths.get(JOURNAL_DIR).toFile());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cartRepository.deleteAll();
+        cartStoreLeaseRepository.deleteAll();
+    }
+
+    @Test
+    void memoryStoreCoalescesClicksIntoBatchedWrites() throws Exception {
+        JpaCartStore jpaCartStore = new JpaCartStore();
+        ReflectionTestUtils.setField(jpaCartStore, "cartRepository", cartRepository);
+        double jpaOpsPerSecond = clickThrough("jpa", jpaCartStore, 0);
+        cartRepository.deleteAll();
+
+        InMemoryCartStore memoryCartStore = memoryCartStore();
+        double memoryOpsPerSecond = clickThrough("memory", memoryCartStore, 1_000);
+        memoryCartStore.flush();
+
+        List<Cart> rows = cartRepository.findAll();
+        assertEquals(USERS * PRODUCTS, rows.size());
+        for (Cart row : rows) assertEquals(CLICKS_PER_LINE, row.getItemCount());
+        assertTrue(memoryOpsPerSecond > jpaOpsPerSecond);
+
+        // A flushed line keeps its row id, so the next change updates it rather than inserting a duplicate
+        Cart line = memoryCartStore.findCartByUserIdAndProductId(1_000, 1).orElseThrow();
+        line.setItemCount(1);
+        memoryCartStore.save(line);
+        memoryCartStore.deleteCartByUserIdAndProductId(1_000, 2);
+        memoryCartStore.flush();
+        assertEquals(USERS * PRODUCTS - 1, cartRepository.count());
+        assertEquals(1, cartRepository.findCartByUserIdAndProductId(1_000, 1).orElseThrow().getItemCount());
+        memoryCartStore.shutdown();
+    }
+
+    @Test
+    void unflushedChangesAreReplayedAfterACrash() throws Exception {
+        cartRepository.save(Cart.builder().userId(7).productId(1).itemCount(1).build());
+        cartRepository.save(Cart.builder().userId(7).productId(2).itemCount(1).build());
+
+        InMemoryCartStore crashed = memoryCartStore();
+        Cart first = crashed.findCartByUserIdAndProductId(7, 1).orElseThrow();
+        for (int i = 0; i < 4; i++) {
+            first.setItemCount(first.getItemCount() + 1);
+            crashed.save(first);
+        }
+        crashed.deleteCartByUserIdAndProductId(7, 2);
+        crashed.save(Cart.builder().userId(7).productId(3).itemCount(2).build());
+        assertEquals(1, cartRepository.findCartByUserIdAndProductId(7, 1).orElseThrow().getItemCount());
+
+        // No flush or shutdown: the next instance finds the journal segment and writes it to MySQL before serving
+        InMemoryCartStore restarted = memoryCartStore();
+        assertEquals(5, cartRepository.findCartByUserIdAndProductId(7, 1).orElseThrow().getItemCount());
+        assertTrue(cartRepository.findCartByUserIdAndProductId(7, 2).isEmpty());
+        assertEquals(2, cartRepository.findCartByUserIdAndProductId(7, 3).orElseThrow().getItemCount());
+        assertEquals(2, restarted.findCartByUserId(7).size());
+        restarted.shutdown();
+    }
+
+    @Test
+    void productEventsRefreshSnapshotsOnCartLines() throws Exception {
+        cartRepository.save(Cart.builder().userId(1).productId(9).itemCount(1).title("old").productUpdatedAt("2023-01-01T00:00:00.000Z").build());
+        cartRepository.save(Cart.builder().userId(2).productId(9).itemCount(1).title("newer").productUpdatedAt("2023-03-01T00:00:00.000Z").build());
+        cartRepository.save(Cart.builder().userId(2).productId(10).itemCount(1).title("gone").build());
+
+        InMemoryCartStore memoryCartStore = memoryCartStore();
+        memoryCartStore.findCartByUserId(1);
+        memoryCartStore.updateProductSnapshot(ProductEvent.builder()
+                .productId(9)
+                .title("new")
+                .price(12.5)
+                .discount(10)
+                .images(List.of(new Image(1L, "/images/9.png")))
+                .updatedAt("2023-02-01T00:00:00.000Z")
+                .build());
+        memoryCartStore.deleteAllByProductId(10);
+        memoryCartStore.flush();
+
+        Cart loaded = memoryCartStore.findCartByUserIdAndProductId(1, 9).orElseThrow();
+        assertEquals("new", loaded.getTitle());
+        assertEquals("/images/9.png", loaded.getImages().get(0).getUrl());
+        assertEquals("new", cartRepository.findCartByUserIdAndProductId(1, 9).orElseThrow().getTitle());
+        assertEquals(12.5, cartRepository.findCartByUserIdAndProductId(1, 9).orElseThrow().getPrice());
+        // An event older than the line's snapshot does not roll it back
+        assertEquals("newer", cartRepository.findCartByUserIdAndProductId(2, 9).orElseThrow().getTitle());
+        assertTrue(cartRepository.findCartByUserIdAndProductId(2, 10).isEmpty());
+        memoryCartStore.shutdown();
+    }
+
+    @Test
+    void secondInstanceIsRefusedWhileTheLeaseIsHeld() throws Exception {
+        InMemoryCartStore first = memoryCartStore();
+        // A restart under the same instance id takes its own lease back
+        InMemoryCartStore restarted = memoryCartStore();
+
+        assertThrows(IllegalStateException.class, () -> memoryCartStore("cart-2"));
+        restarted.shutdown();
+        InMemoryCartStore second = memoryCartStore("cart-2");
+        assertThrows(IllegalStateException.class, first::renewLease);
+        second.shutdown();
+    }
+
+    private InMemoryCartStore memoryCartStore() throws Exception {
+        return memoryCartStore("cart-1");
+    }
+
+    private InMemoryCartStore memoryCartStore(String instanceId) throws Exception {
+        InMemoryCartStore cartStore = new InMemoryCartStore();
+        ReflectionTestUtils.setField(cartStore, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(cartStore, "cartStoreLeaseRepository", cartStoreLeaseRepository);
+        ReflectionTestUtils.setField(cartStore, "instanceId", instanceId);
+        ReflectionTestUtils.setField(cartStore, "leaseMs", 30_000L);
+        ReflectionTestUtils.setField(cartStore, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(cartStore, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cartStore, "journalDir", JOURNAL_DIR);
+        ReflectionTestUtils.setField(cartStore, "idleEvictMs", 1_800_000L);
+        cartStore.init();
+
+        return cartStore;
+    }
+
+    private double clickThrough(String label, CartStore cartStore, long firstUserId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        List<Future<?>> futures = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int u = 0; u < USERS; u++) {
+            long userId = firstUserId + u;
+            futures.add(executor.submit(() -> {
+                for (int click = 0; click < CLICKS_PER_LINE; click++) {
+                    for (long productId = 1; productId <= PRODUCTS; productId++) {
+                        long id = productId;
+                        Cart line = cartStore.findCartByUserIdAndProductId(userId, id)
+                                .orElseGet(() -> Cart.builder().userId(userId).productId(id).build());
+                        line.setItemCount(line.getItemCount() + 1);
+                        cartStore.save(line);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        int clicks = USERS * PRODUCTS * CLICKS_PER_LINE;
+        double opsPerSecond = clicks / seconds;
+        System.out.printf("%s cart store: %d clicks on %d threads, %.0f clicks/s%n", label, clicks, USERS, opsPerSecond);
+
+        return opsPerSecond;
+    }
+}
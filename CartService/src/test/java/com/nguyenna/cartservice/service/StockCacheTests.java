@@ -0,0 +1,60 @@
+package com.nguyenna.cartservice.service;
+
+import com.nguyenna.cartservice.dto.InventoryResponse;
+import com.nguyenna.cartservice.feing.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockCacheTests {
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StockCache stockCache = new StockCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockCache, "inventoryService", inventoryService);
+        ReflectionTestUtils.setField(stockCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stockCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(stockCache, "ttlMs", 60_000L);
+        stockCache.init();
+    }
+
+    @Test
+    void repeatedClicksCallInventoryOnce() {
+        when(inventoryService.getProduct(1L)).thenReturn(ResponseEntity.ok(new InventoryResponse(1L, 5, null)));
+
+        for (int i = 0; i < 3; i++) {
+            InventoryResponse response = stockCache.get(1L);
+            assertNull(response.getMessage());
+            assertEquals(5, response.getProductCount());
+        }
+
+        verify(inventoryService, times(1)).getProduct(1L);
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "stockCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void errorShapeIsDecodedAndInvalidationReloads() {
+        when(inventoryService.getProduct(2L)).thenReturn(ResponseEntity.ok(new InventoryResponse(0L, 0, "Product not found in inventory")));
+        assertEquals("Product not found in inventory", stockCache.get(2L).getMessage());
+
+        when(inventoryService.getProduct(2L)).thenReturn(ResponseEntity.ok(new InventoryResponse(2L, 10, null)));
+        stockCache.invalidate(2L);
+        assertEquals(10, stockCache.get(2L).getProductCount());
+
+        verify(inventoryService, times(2)).getProduct(2L);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nguyenna.cartservice.util;
+
+import com.nguyenna.cartservice.dto.TokenClaims;
+import com.nguyenna.cartservice.service.RevokedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtVerifierTests {
+
+    private static final String SECRET = "V9PROAMPRES6FD4S6D5F4S65FD4S65DF4S6D5F4S6D5F4S6D5F4S6D5F4S6D54FS6D4HJGJKLSKJDFLSKDJFLSDKJFLSDFSDF5S4DF65S4D6FS54";
+
+    private final Key key = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(SECRET));
+
+    private final RevokedTokenCache revokedTokenCache = mock(RevokedTokenCache.class);
+
+    private final JwtVerifier jwtVerifier = new JwtVerifier();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtVerifier, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtVerifier, "revokedTokenCache", revokedTokenCache);
+        jwtVerifier.init();
+    }
+
+    @Test
+    void verifiesSignedToken() {
+        TokenClaims claims = jwtVerifier.verify(token("jti-1", Map.of("userId", 42, "role", "USER"), 60_000, key));
+
+        assertNotNull(claims);
+        assertEquals(42, claims.userId());
+        assertEquals("USER", claims.role());
+        assertEquals("user@mail.com", claims.email());
+        assertEquals("jti-1", claims.tokenId());
+    }
+
+    @Test
+    void rejectsExpiredForgedRevokedAndLegacyTokens() {
+        Key otherKey = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(SECRET.replace('V', 'W')));
+        when(revokedTokenCache.isRevoked("jti-revoked")).thenReturn(true);
+
+        assertNull(jwtVerifier.verify(token("jti-1", Map.of("userId", 42), -1_000, key)));
+        assertNull(jwtVerifier.verify(token("jti-1", Map.of("userId", 42), 60_000, otherKey)));
+        assertNull(jwtVerifier.verify(token("jti-revoked", Map.of("userId", 42), 60_000, key)));
+        assertNull(jwtVerifier.verify(token("jti-1", Map.of(), 60_000, key)));
+        assertNull(jwtVerifier.verify("not-a-token"));
+    }
+
+    private String token(String tokenId, Map<String, Object> claims, long ttl, Key signingKey) {
+        return Jwts.builder().setClaims(claims)
+                .setId(tokenId)
+                .setSubject("user@mail.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttl))
+                .signWith(signingKey)
+                .compact();
+    }
+}
@@ -2,6 +2,7 @@ package com.nguyenna.inventoryservice.controller;
 
 import com.nguyenna.inventoryservice.dto.ApiResponse;
 import com.nguyenna.inventoryservice.service.InventoryService;
+import com.nguyenna.inventoryservice.service.ReservationService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +10,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
@@ -16,6 +20,9 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private ReservationService reservationService;
+
     @Value("${application.mode}")
     private String applicationMode;
 
@@ -31,12 +38,36 @@ public class InventoryController {
         return inventoryService.purchaseProduct(id, purchaseCount);
     }
 
+    @PostMapping("/reserve")
+    @CircuitBreaker(name = "reserveProducts", fallbackMethod = "fallback")
+    public ResponseEntity<?> reserveProducts(@RequestBody Map<Long, Integer> items) {
+        return reservationService.reserve(items);
+    }
+
+    @PostMapping("/reserve/{reservationId}/commit")
+    @CircuitBreaker(name = "commitReservation", fallbackMethod = "fallback")
+    public ResponseEntity<?> commitReservation(@PathVariable String reservationId) {
+        return reservationService.commit(reservationId);
+    }
+
+    @PostMapping("/reserve/{reservationId}/release")
+    @CircuitBreaker(name = "releaseReservation", fallbackMethod = "fallback")
+    public ResponseEntity<?> releaseReservation(@PathVariable String reservationId) {
+        return reservationService.release(reservationId);
+    }
+
     @GetMapping("/{id}")
     @CircuitBreaker(name = "getProduct", fallbackMethod = "fallback")
     public ResponseEntity<?> getProduct(@PathVariable long id) {
         return inventoryService.getProduct(id);
     }
 
+    @PostMapping("/stock")
+    @CircuitBreaker(name = "getStock", fallbackMethod = "fallback")
+    public ResponseEntity<?> getStock(@RequestBody List<Long> ids) {
+        return inventoryService.getStock(ids);
+    }
+
     @DeleteMapping("/{id}")
     @CircuitBreaker(name = "deleteProduct", fallbackMethod = "fallback")
     public ResponseEntity<?> deleteProduct(@PathVariable long id) {
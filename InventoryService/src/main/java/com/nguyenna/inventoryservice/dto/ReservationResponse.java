@@ -0,0 +1,4 @@
+package com.nguyenna.inventoryservice.dto;
+
+public record ReservationResponse(boolean status, String message, String reservationId) {
+}
@@ -0,0 +1,21 @@
+package com.nguyenna.inventoryservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The last hot SKU journal segment whose deltas are already in the inventory table. It is written in the same
+ * transaction as those deltas, so a segment that survived a crash after its write-back is never applied twice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class HotStockCheckpoint {
+    @Id
+    private String name;
+    private long lastSegment;
+}
@@ -0,0 +1,29 @@
+package com.nguyenna.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_reservation_status_created_at", columnList = "status, createdAt"))
+public class Reservation {
+    @Id
+    private String id;
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "reservation_item", joinColumns = @JoinColumn(name = "reservation_id"))
+    @MapKeyColumn(name = "product_id")
+    @Column(name = "product_count")
+    private Map<Long, Integer> items;
+    private long createdAt;
+    private long updatedAt;
+}
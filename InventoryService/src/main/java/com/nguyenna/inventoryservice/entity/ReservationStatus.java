@@ -0,0 +1,5 @@
+package com.nguyenna.inventoryservice.entity;
+
+public enum ReservationStatus {
+    RESERVED, COMMITTED, RELEASED
+}
@@ -0,0 +1,7 @@
+package com.nguyenna.inventoryservice.repository;
+
+import com.nguyenna.inventoryservice.entity.HotStockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface HotStockCheckpointRepository extends JpaRepository<HotStockCheckpoint, String> {
+}
@@ -2,5 +2,20 @@ package com.nguyenna.inventoryservice.repository;
 
 import com.nguyenna.inventoryservice.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {}
+public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Inventory i SET i.productCount = i.productCount - :count WHERE i.productId = :productId AND i.productCount >= :count")
+    int decrementStock(@Param("productId") long productId, @Param("count") int count);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Inventory i SET i.productCount = i.productCount + :count WHERE i.productId = :productId")
+    int incrementStock(@Param("productId") long productId, @Param("count") int count);
+}
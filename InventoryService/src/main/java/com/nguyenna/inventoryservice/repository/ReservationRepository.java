@@ -0,0 +1,23 @@
+package com.nguyenna.inventoryservice.repository;
+
+import com.nguyenna.inventoryservice.entity.Reservation;
+import com.nguyenna.inventoryservice.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ReservationRepository extends JpaRepository<Reservation, String> {
+
+    List<Reservation> findAllByStatusAndCreatedAtLessThan(ReservationStatus status, long createdAt);
+
+    // Moves the reservation only if it is still in the expected state, so of two racing transitions exactly one
+    // updates the row and the other sees 0. Clears the persistence context so later reads see the new status.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = :updatedAt WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") String id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to, @Param("updatedAt") long updatedAt);
+}
@@ -0,0 +1,376 @@
+package com.nguyenna.inventoryservice.service;
+
+import com.nguyenna.inventoryservice.entity.HotStockCheckpoint;
+import com.nguyenna.inventoryservice.entity.Inventory;
+import com.nguyenna.inventoryservice.repository.HotStockCheckpointRepository;
+import com.nguyenna.inventoryservice.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the stock of flagged ("hot") products in memory so that flash-sale purchases do not all queue on one
+ * MySQL row lock. Each product's stock is split across striped atomic counters; decrements are CAS loops that
+ * never take a stock value below zero. Net changes are journaled to a local append-only segment and written
+ * back to {@link InventoryRepository} in one transaction every {@code inventory.hot-sku.flush-ms}, together with
+ * the {@link HotStockCheckpoint} of the newest segment it covers. On startup the segments a previous run left
+ * behind past that checkpoint are replayed into the database before counters are loaded.
+ * <p>
+ * Inside a transaction a decrement holds its units straight away but is only journaled once the transaction
+ * commits, and handed back if it rolls back; an increment is applied after commit only.
+ * <p>
+ * Hot mode is single-instance only: the counters and the journal belong to this process, so two instances
+ * configured with the same product ids would each sell the full stock.
+ */
+@Component
+public class HotStockStore {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HotStockCheckpointRepository hotStockCheckpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.hot-sku.product-ids:}")
+    private List<Long> hotProductIds;
+
+    @Value("${inventory.hot-sku.stripes:8}")
+    private int stripes;
+
+    @Value("${inventory.hot-sku.journal-dir:data/hot-sku-journal}")
+    private String journalDir;
+
+    private static final String CHECKPOINT = "hot-sku";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    private final Map<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final List<Path> retainedSegments = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+    private BufferedWriter journal;
+    private Path journalSegment;
+
+    private final Logger logger = LoggerFactory.getLogger(HotStockStore.class);
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (hotProductIds == null || hotProductIds.isEmpty()) return;
+
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        synchronized (journalLock) {
+            if (journal != null) journal.close();
+            journal = null;
+            counters.clear();
+            pendingDeltas.clear();
+        }
+        Files.createDirectories(Paths.get(journalDir));
+        recover();
+
+        for (Inventory inventory : inventoryRepository.findAllById(hotProductIds)) {
+            counters.put(inventory.getProductId(), new StripedCounter(stripes, inventory.getProductCount()));
+            pendingDeltas.put(inventory.getProductId(), new AtomicInteger());
+        }
+        openSegment();
+        logger.info("Hot SKU mode enabled for " + counters.keySet());
+    }
+
+    public boolean isHot(long productId) {
+        return counters.containsKey(productId);
+    }
+
+    public int getStock(long productId) {
+        return counters.get(productId).sum();
+    }
+
+    /**
+     * Takes {@code count} units of a hot product, or nothing at all if fewer are available.
+     */
+    public boolean tryDecrement(long productId, int count) {
+        StripedCounter counter = counters.get(productId);
+        if (!counter.tryDecrement(count)) return false;
+
+        if (!inTransaction()) {
+            record(productId, -count);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(productId, -count);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) counter.add(count);
+            }
+        });
+
+        return true;
+    }
+
+    public void increment(long productId, int count) {
+        if (!inTransaction()) {
+            apply(productId, count);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(productId, count);
+            }
+        });
+    }
+
+    public void remove(long productId) {
+        counters.remove(productId);
+        pendingDeltas.remove(productId);
+    }
+
+    /**
+     * Writes the net change of every hot product since the previous flush back to MySQL in one transaction,
+     * checkpoints the journal segment that covered those changes, then drops it.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-ms:200}")
+    public void flush() {
+        if (journal == null) return;
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        Path flushedSegment;
+        long flushedSequence;
+        synchronized (journalLock) {
+            pendingDeltas.forEach((productId, delta) -> {
+                int value = delta.getAndSet(0);
+                if (value != 0) deltas.put(productId, value);
+            });
+            if (deltas.isEmpty()) return;
+
+            flushedSegment = journalSegment;
+            flushedSequence = segmentSequence.get();
+            try {
+                journal.close();
+                openSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        try {
+            applyToDatabase(deltas, flushedSequence);
+            // Deltas of earlier failed flushes were carried into this one, so their segments are done as well
+            synchronized (journalLock) {
+                for (Path segment : retainedSegments) Files.deleteIfExists(segment);
+                retainedSegments.clear();
+            }
+            Files.deleteIfExists(flushedSegment);
+        } catch (Exception e) {
+            // The segment stays on disk, so a crash before the next successful flush still replays these deltas
+            logger.error("Failed to write back hot SKU stock: " + e.getMessage());
+            synchronized (journalLock) {
+                retainedSegments.add(flushedSegment);
+                deltas.forEach((productId, delta) -> {
+                    AtomicInteger pending = pendingDeltas.get(productId);
+                    if (pending != null) pending.addAndGet(delta);
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) return;
+
+        flush();
+        synchronized (journalLock) {
+            journal.close();
+            journal = null;
+            if (pendingDeltas.values().stream().allMatch(delta -> delta.get() == 0)) Files.deleteIfExists(journalSegment);
+        }
+    }
+
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void apply(long productId, int count) {
+        StripedCounter counter = counters.get(productId);
+        // The product may have been deleted while the transaction was open
+        if (counter == null) return;
+
+        counter.add(count);
+        record(productId, count);
+    }
+
+    private void record(long productId, int delta) {
+        synchronized (journalLock) {
+            AtomicInteger pending = pendingDeltas.get(productId);
+            if (pending == null) return;
+
+            pending.addAndGet(delta);
+            try {
+                journal.write(productId + "," + delta);
+                journal.newLine();
+                journal.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Replays the segments past the checkpoint and deletes all of them. Segments at or below it were written
+     * back already; they are only still on disk because the process died before deleting them.
+     */
+    private void recover() throws IOException {
+        long checkpoint = hotStockCheckpointRepository.findById(CHECKPOINT).map(HotStockCheckpoint::getLastSegment).orElse(0L);
+        segmentSequence.set(checkpoint);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(Paths.get(journalDir))) {
+            segments = files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches()).sorted().toList();
+        }
+        if (segments.isEmpty()) return;
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        long lastSequence = checkpoint;
+        int replayed = 0;
+        for (Path segment : segments) {
+            long sequence = sequenceOf(segment);
+            if (sequence <= checkpoint) continue;
+
+            lastSequence = Math.max(lastSequence, sequence);
+            replayed++;
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                // A torn last line from a crash mid-write is skipped
+                if (parts.length != 2) continue;
+                try {
+                    deltas.merge(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer::sum);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+
+        if (replayed > 0) applyToDatabase(deltas, lastSequence);
+        segmentSequence.set(lastSequence);
+        for (Path segment : segments) Files.delete(segment);
+        logger.info("Replayed " + replayed + " hot SKU journal segment(s), skipped " + (segments.size() - replayed) + " already written back");
+    }
+
+    private void applyToDatabase(Map<Long, Integer> deltas, long lastSegment) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<Long, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+                if (delta.getValue() != 0) inventoryRepository.incrementStock(delta.getKey(), delta.getValue());
+            }
+            hotStockCheckpointRepository.save(new HotStockCheckpoint(CHECKPOINT, lastSegment));
+        });
+    }
+
+    private static long sequenceOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) throw new IllegalArgumentException("Not a journal segment: " + segment);
+
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private void openSegment() throws IOException {
+        // Zero padded, so the name order of the segments is their sequence order
+        journalSegment = Paths.get(journalDir, String.format("segment-%019d.log", segmentSequence.incrementAndGet()));
+        journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalSegment.toFile(), true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stock split across independent atomic slots. A decrement first tries to take the whole count from a
+     * single slot, starting at a random one so threads spread out; only when no slot can cover it does it
+     * fall back to draining several slots under a lock.
+     */
+    static class StripedCounter {
+
+        private final AtomicIntegerArray slots;
+
+        StripedCounter(int stripes, int initial) {
+            slots = new AtomicIntegerArray(stripes);
+            for (int i = 0; i < stripes; i++) slots.set(i, initial / stripes + (i < initial % stripes ? 1 : 0));
+        }
+
+        int sum() {
+            int sum = 0;
+            for (int i = 0; i < slots.length(); i++) sum += slots.get(i);
+
+            return sum;
+        }
+
+        void add(int count) {
+            slots.addAndGet(ThreadLocalRandom.current().nextInt(slots.length()), count);
+        }
+
+        boolean tryDecrement(int count) {
+            int length = slots.length();
+            int start = ThreadLocalRandom.current().nextInt(length);
+            for (int i = 0; i < length; i++) {
+                int slot = (start + i) % length;
+                int current;
+                while ((current = slots.get(slot)) >= count) {
+                    if (slots.compareAndSet(slot, current, current - count)) return true;
+                }
+            }
+
+            return tryDecrementAcrossSlots(count);
+        }
+
+        private synchronized boolean tryDecrementAcrossSlots(int count) {
+            int[] taken = new int[slots.length()];
+            int remaining = count;
+            for (int slot = 0; slot < slots.length() && remaining > 0; slot++) {
+                int current;
+                while ((current = slots.get(slot)) > 0) {
+                    int take = Math.min(current, remaining);
+                    if (slots.compareAndSet(slot, current, current - take)) {
+                        taken[slot] = take;
+                        remaining -= take;
+                        break;
+                    }
+                }
+            }
+            if (remaining == 0) return true;
+
+            for (int slot = 0; slot < taken.length; slot++) {
+                if (taken[slot] > 0) slots.addAndGet(slot, taken[slot]);
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.nguyenna.inventoryservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Announces that the stock of a product changed. The event only carries the product id, so consumers treat it
+ * as an invalidation and re-read the current count. A change made inside a transaction is only noted once that
+ * transaction commits. Noted products are published every {@code inventory.event.flush-ms}, once per product
+ * however many times its stock changed in between, so a flash sale does not send one message per purchase.
+ */
+@Service
+public class InventoryEventPublisher {
+
+    public static final String INVENTORY_EVENT_TOPIC = "inventory-event";
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final Set<Long> changedProducts = ConcurrentHashMap.newKeySet();
+
+    private final Logger logger = LoggerFactory.getLogger(InventoryEventPublisher.class);
+
+    public void stockChanged(long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            changedProducts.add(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changedProducts.add(productId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.event.flush-ms:100}")
+    @PreDestroy
+    public void publishChanges() {
+        for (Long productId : changedProducts) {
+            // Removed before sending, so a change that lands meanwhile is published again on the next run
+            changedProducts.remove(productId);
+            String id = String.valueOf(productId);
+            try {
+                kafkaTemplate.send(INVENTORY_EVENT_TOPIC, id, id);
+            } catch (Exception e) {
+                logger.error("Failed to publish stock change for product " + productId + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.nguyenna.inventoryservice.service;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public interface InventoryService {
 
@@ -12,5 +14,7 @@ public interface InventoryService {
 
     ResponseEntity<?> getProduct(long id);
 
+    ResponseEntity<?> getStock(List<Long> ids);
+
     ResponseEntity<?> deleteProduct(long id);
 }
@@ -8,6 +8,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,8 +19,20 @@ public class InventoryServiceImpl implements InventoryService {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private HotStockStore hotStockStore;
+
+    @Autowired
+    private InventoryEventPublisher inventoryEventPublisher;
+
     @Override
     public ResponseEntity<?> addProduct(long id, int productCount) {
+        if (hotStockStore.isHot(id)) {
+            hotStockStore.increment(id, productCount);
+            inventoryEventPublisher.stockChanged(id);
+            return new ResponseEntity<>(new ApiResponse(true, "Product added successfully"), HttpStatus.CREATED);
+        }
+
         Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
         Inventory inventory = new Inventory();
         inventory.setProductId(id);
@@ -26,28 +41,39 @@ public class InventoryServiceImpl implements InventoryService {
 
         try {
             inventoryRepository.save(inventory);
+            inventoryEventPublisher.stockChanged(id);
             return new ResponseEntity<>(new ApiResponse(true, "Product added successfully"), HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Not transactional: a hot SKU purchase never touches MySQL, and the conditional UPDATE runs in its own
     @Override
     public ResponseEntity<?> purchaseProduct(long id, int purchaseCount) {
-        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
-        if (optionalInventory.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found in inventory"), HttpStatus.BAD_REQUEST);
-
-        Inventory inventory = optionalInventory.get();
-        if (purchaseCount > inventory.getProductCount()) return new ResponseEntity<>(new ApiResponse(false, "Only " + inventory.getProductCount() + " products are in stock"), HttpStatus.BAD_REQUEST);
-
-        inventory.setProductCount(inventory.getProductCount() - purchaseCount);
+        if (purchaseCount <= 0) return new ResponseEntity<>(new ApiResponse(false, "Purchase count must be greater than 0"), HttpStatus.BAD_REQUEST);
+        if (hotStockStore.isHot(id)) {
+            if (hotStockStore.tryDecrement(id, purchaseCount)) {
+                inventoryEventPublisher.stockChanged(id);
+                return new ResponseEntity<>(new ApiResponse(true, "Product updated successfully"), HttpStatus.CREATED);
+            }
+            return new ResponseEntity<>(new ApiResponse(false, "Only " + hotStockStore.getStock(id) + " products are in stock"), HttpStatus.BAD_REQUEST);
+        }
 
         try {
-            inventoryRepository.save(inventory);
-            return new ResponseEntity<>(new ApiResponse(true, "Product updated successfully"), HttpStatus.CREATED);
+            // Check and decrement in one statement, so concurrent purchases can neither oversell nor lose updates
+            if (inventoryRepository.decrementStock(id, purchaseCount) == 1) {
+                inventoryEventPublisher.stockChanged(id);
+                return new ResponseEntity<>(new ApiResponse(true, "Product updated successfully"), HttpStatus.CREATED);
+            }
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
+
+        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
+        if (optionalInventory.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found in inventory"), HttpStatus.BAD_REQUEST);
+
+        return new ResponseEntity<>(new ApiResponse(false, "Only " + optionalInventory.get().getProductCount() + " products are in stock"), HttpStatus.BAD_REQUEST);
     }
 
     @Override
@@ -55,7 +81,23 @@ public class InventoryServiceImpl implements InventoryService {
         Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
         if (optionalInventory.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found in inventory"), HttpStatus.OK);
 
-        return new ResponseEntity<>(optionalInventory.get(), HttpStatus.OK);
+        Inventory inventory = optionalInventory.get();
+        if (hotStockStore.isHot(id)) inventory.setProductCount(hotStockStore.getStock(id));
+
+        return new ResponseEntity<>(inventory, HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<?> getStock(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return new ResponseEntity<>(new HashMap<>(), HttpStatus.OK);
+
+        Map<Long, Integer> stock = new HashMap<>(ids.size());
+        for (Inventory inventory : inventoryRepository.findAllById(ids)) {
+            long productId = inventory.getProductId();
+            stock.put(productId, hotStockStore.isHot(productId) ? hotStockStore.getStock(productId) : inventory.getProductCount());
+        }
+
+        return new ResponseEntity<>(stock, HttpStatus.OK);
     }
 
     @Override
@@ -64,6 +106,8 @@ public class InventoryServiceImpl implements InventoryService {
         if (optionalInventory.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found in inventory"), HttpStatus.BAD_REQUEST);
         try {
             inventoryRepository.delete(optionalInventory.get());
+            hotStockStore.remove(id);
+            inventoryEventPublisher.stockChanged(id);
             return new ResponseEntity<>(new ApiResponse(true, "Product deleted successfully"), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,16 @@
+package com.nguyenna.inventoryservice.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+public interface ReservationService {
+
+    ResponseEntity<?> reserve(Map<Long, Integer> items);
+
+    ResponseEntity<?> commit(String reservationId);
+
+    ResponseEntity<?> release(String reservationId);
+}
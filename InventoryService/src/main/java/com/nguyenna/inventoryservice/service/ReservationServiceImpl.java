@@ -0,0 +1,131 @@
+package com.nguyenna.inventoryservice.service;
+
+import com.nguyenna.inventoryservice.dto.ApiResponse;
+import com.nguyenna.inventoryservice.dto.ReservationResponse;
+import com.nguyenna.inventoryservice.entity.Reservation;
+import com.nguyenna.inventoryservice.entity.ReservationStatus;
+import com.nguyenna.inventoryservice.repository.InventoryRepository;
+import com.nguyenna.inventoryservice.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private HotStockStore hotStockStore;
+
+    @Autowired
+    private InventoryEventPublisher inventoryEventPublisher;
+
+    @Value("${inventory.reservation.ttl-ms:900000}")
+    private long reservationTtlMs;
+
+    private final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> reserve(Map<Long, Integer> items) {
+        if (items == null || items.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "No products to reserve"), HttpStatus.BAD_REQUEST);
+        if (items.values().stream().anyMatch(count -> count == null || count <= 0)) return new ResponseEntity<>(new ApiResponse(false, "Product count must be greater than 0"), HttpStatus.BAD_REQUEST);
+
+        // Rows are always locked in ascending productId order, so two overlapping carts cannot deadlock
+        Map<Long, Integer> sortedItems = new TreeMap<>(items);
+        for (Map.Entry<Long, Integer> item : sortedItems.entrySet()) {
+            // Hot SKU units taken here are handed back by the store when this transaction rolls back
+            boolean reserved = hotStockStore.isHot(item.getKey())
+                    ? hotStockStore.tryDecrement(item.getKey(), item.getValue())
+                    : inventoryRepository.decrementStock(item.getKey(), item.getValue()) == 1;
+
+            if (!reserved) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return new ResponseEntity<>(new ApiResponse(false, "Not enough stock for product " + item.getKey()), HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .id(UUID.randomUUID().toString())
+                .status(ReservationStatus.RESERVED)
+                .items(sortedItems)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        sortedItems.keySet().forEach(inventoryEventPublisher::stockChanged);
+
+        return new ResponseEntity<>(new ReservationResponse(true, "Products reserved successfully", reservation.getId()), HttpStatus.CREATED);
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> commit(String reservationId) {
+        if (!transition(reservationId, ReservationStatus.COMMITTED)) {
+            Optional<Reservation> optionalReservation = reservationRepository.findById(reservationId);
+            if (optionalReservation.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Reservation not found"), HttpStatus.BAD_REQUEST);
+            if (optionalReservation.get().getStatus() == ReservationStatus.RELEASED) return new ResponseEntity<>(new ApiResponse(false, "Reservation has already been released"), HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<>(new ReservationResponse(true, "Reservation committed successfully", reservationId), HttpStatus.OK);
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> release(String reservationId) {
+        boolean released = transition(reservationId, ReservationStatus.RELEASED);
+        Optional<Reservation> optionalReservation = reservationRepository.findById(reservationId);
+        if (optionalReservation.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Reservation not found"), HttpStatus.BAD_REQUEST);
+
+        Reservation reservation = optionalReservation.get();
+        if (released) restock(reservation);
+        else if (reservation.getStatus() == ReservationStatus.COMMITTED) return new ResponseEntity<>(new ApiResponse(false, "Reservation has already been committed"), HttpStatus.BAD_REQUEST);
+
+        return new ResponseEntity<>(new ReservationResponse(true, "Reservation released successfully", reservationId), HttpStatus.OK);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-check-ms:60000}")
+    @Transactional
+    public void releaseExpiredReservations() {
+        long expiredBefore = System.currentTimeMillis() - reservationTtlMs;
+        for (Reservation reservation : reservationRepository.findAllByStatusAndCreatedAtLessThan(ReservationStatus.RESERVED, expiredBefore)) {
+            // A commit or release that got there first wins; the reservation is then left alone
+            if (!transition(reservation.getId(), ReservationStatus.RELEASED)) continue;
+            logger.info("Releasing expired reservation " + reservation.getId());
+            restock(reservation);
+        }
+    }
+
+    /**
+     * Moves a RESERVED reservation to the given status. Only the caller that gets true may act on the transition,
+     * so a reservation's stock is returned or sold exactly once however commit, release and expiry interleave.
+     */
+    private boolean transition(String reservationId, ReservationStatus to) {
+        return reservationRepository.transition(reservationId, ReservationStatus.RESERVED, to, System.currentTimeMillis()) == 1;
+    }
+
+    private void restock(Reservation reservation) {
+        for (Map.Entry<Long, Integer> item : new TreeMap<>(reservation.getItems()).entrySet()) {
+            if (hotStockStore.isHot(item.getKey())) hotStockStore.increment(item.getKey(), item.getValue());
+            else inventoryRepository.incrementStock(item.getKey(), item.getValue());
+            inventoryEventPublisher.stockChanged(item.getKey());
+        }
+    }
+}
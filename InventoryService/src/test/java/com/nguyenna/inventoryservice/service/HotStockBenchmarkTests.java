@@ -0,0 +1,183 @@
+package com.nguyenna.inventoryservice.service;
+
+import com.nguyenna.inventoryservice.entity.Inventory;
+import com.nguyenna.inventoryservice.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url = jdbc:h2:mem:hot-sku;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName = org.h2.Driver",
+        "spring.datasource.username = sa",
+        "spring.datasource.password = ",
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "inventory.hot-sku.product-ids = 1",
+        "inventory.hot-sku.journal-dir = " + HotStockBenchmarkTests.JOURNAL_DIR,
+        // The test drives flushes itself; keep the scheduled one from racing it
+        "inventory.hot-sku.flush-ms = 3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(HotStockStore.class)
+class HotStockBenchmarkTests {
+
+    static final String JOURNAL_DIR = "target/hot-sku-journal";
+    private static final long HOT_SKU = 1L;
+    private static final long COLD_SKU = 2L;
+    private static final int STOCK = 20_000;
+    private static final int THREADS = 16;
+    private static final int DECREMENTS_PER_THREAD = 1_500;
+
+    @Autowired
+    private HotStockStore hotStockStore;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void hotCountersOutpaceRowLockedDecrements() throws Exception {
+        inventoryRepository.save(new Inventory(COLD_SKU, STOCK));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int jpaSold = run("jpa row lock", count -> Boolean.TRUE.equals(transactionTemplate.execute(status -> inventoryRepository.decrementStock(COLD_SKU, count) == 1)));
+
+        // The store loaded before the row existed, so reload it and seed the hot SKU through the store itself
+        inventoryRepository.save(new Inventory(HOT_SKU, 0));
+        hotStockStore.init();
+        hotStockStore.increment(HOT_SKU, STOCK);
+        hotStockStore.flush();
+        int hotSold = run("hot sku counters", count -> hotStockStore.tryDecrement(HOT_SKU, count));
+        hotStockStore.flush();
+
+        assertEquals(STOCK, jpaSold);
+        assertEquals(STOCK, hotSold);
+        assertEquals(0, hotStockStore.getStock(HOT_SKU));
+        assertEquals(0, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+        assertEquals(0, inventoryRepository.findById(COLD_SKU).get().getProductCount());
+        hotStockStore.shutdown();
+    }
+
+    @Test
+    void unflushedDecrementsAreReplayedFromTheJournal() throws Exception {
+        inventoryRepository.save(new Inventory(HOT_SKU, 100));
+        hotStockStore.init();
+
+        for (int i = 0; i < 30; i++) hotStockStore.tryDecrement(HOT_SKU, 1);
+        assertEquals(100, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+
+        // A fresh init stands in for a restart that never flushed: the open segment is replayed into MySQL
+        hotStockStore.init();
+        assertEquals(70, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+        assertEquals(70, hotStockStore.getStock(HOT_SKU));
+        hotStockStore.shutdown();
+    }
+
+    @Test
+    void rolledBackDecrementsAreHandedBackAndNeverWrittenBack() throws Exception {
+        inventoryRepository.save(new Inventory(HOT_SKU, 10));
+        hotStockStore.init();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(hotStockStore.tryDecrement(HOT_SKU, 4));
+            // Held while the transaction is open, so no one else can take the same units
+            assertEquals(6, hotStockStore.getStock(HOT_SKU));
+            status.setRollbackOnly();
+        });
+        assertEquals(10, hotStockStore.getStock(HOT_SKU));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            hotStockStore.increment(HOT_SKU, 5);
+            assertEquals(10, hotStockStore.getStock(HOT_SKU));
+            status.setRollbackOnly();
+        });
+        assertEquals(10, hotStockStore.getStock(HOT_SKU));
+
+        transactionTemplate.executeWithoutResult(status -> hotStockStore.tryDecrement(HOT_SKU, 3));
+        hotStockStore.flush();
+        assertEquals(7, hotStockStore.getStock(HOT_SKU));
+        assertEquals(7, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+        hotStockStore.shutdown();
+    }
+
+    @Test
+    void segmentsAlreadyWrittenBackAreNotReplayed() throws Exception {
+        inventoryRepository.save(new Inventory(HOT_SKU, 100));
+        hotStockStore.init();
+        for (int i = 0; i < 30; i++) hotStockStore.tryDecrement(HOT_SKU, 1);
+
+        Map<Path, byte[]> segments = new HashMap<>();
+        try (Stream<Path> files = Files.list(Paths.get(JOURNAL_DIR))) {
+            for (Path segment : files.toList()) segments.put(segment, Files.readAllBytes(segment));
+        }
+        hotStockStore.flush();
+        assertEquals(70, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+
+        // Puts the flushed segment back, as if the process died between the write-back and the delete
+        for (Map.Entry<Path, byte[]> segment : segments.entrySet()) Files.write(segment.getKey(), segment.getValue());
+        hotStockStore.init();
+        assertEquals(70, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+        assertEquals(70, hotStockStore.getStock(HOT_SKU));
+        hotStockStore.shutdown();
+    }
+
+    private int run(String label, IntPredicate decrement) throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                    if (decrement.test(1)) sold.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        int attempts = THREADS * DECREMENTS_PER_THREAD;
+        System.out.printf("%s: %d attempts on %d threads, %d sold, %.0f decrements/s%n", label, attempts, THREADS, sold.get(), attempts / seconds);
+
+        return sold.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.nguyenna.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url = jdbc:h2:mem:inventory-events;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName = org.h2.Driver",
+        "spring.datasource.username = sa",
+        "spring.datasource.password = ",
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        // The test drives publishing itself; keep the scheduled run from racing it
+        "inventory.event.flush-ms = 3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(InventoryEventPublisher.class)
+class InventoryEventPublisherTests {
+
+    @Autowired
+    private InventoryEventPublisher inventoryEventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Test
+    void publishesOncePerProductAndOnlyAfterCommit() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 100; i++) inventoryEventPublisher.stockChanged(1L);
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryEventPublisher.stockChanged(2L);
+            inventoryEventPublisher.stockChanged(2L);
+            inventoryEventPublisher.publishChanges();
+            // Nothing from inside the transaction is out before it commits
+            verify(kafkaTemplate, never()).send(anyString(), eq("2"), anyString());
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryEventPublisher.stockChanged(3L);
+            status.setRollbackOnly();
+        });
+
+        inventoryEventPublisher.publishChanges();
+        verify(kafkaTemplate, times(1)).send(InventoryEventPublisher.INVENTORY_EVENT_TOPIC, "1", "1");
+        verify(kafkaTemplate, times(1)).send(InventoryEventPublisher.INVENTORY_EVENT_TOPIC, "2", "2");
+        verify(kafkaTemplate, never()).send(anyString(), eq("3"), anyString());
+    }
+}
@@ -0,0 +1,94 @@
+package com.nguyenna.inventoryservice.service;
+
+import com.nguyenna.inventoryservice.entity.Inventory;
+import com.nguyenna.inventoryservice.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url = jdbc:h2:mem:inventory;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName = org.h2.Driver",
+        "spring.datasource.username = sa",
+        "spring.datasource.password = ",
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InventoryServiceImpl.class, HotStockStore.class})
+class PurchaseStressTests {
+
+    private static final long HOT_SKU = 1L;
+    private static final int STOCK = 1_000;
+    private static final int THREADS = 16;
+    private static final int PURCHASES_PER_THREAD = 100;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @MockBean
+    private InventoryEventPublisher inventoryEventPublisher;
+
+    @Test
+    void concurrentPurchasesNeverOversell() throws Exception {
+        inventoryRepository.save(new Inventory(HOT_SKU, STOCK));
+
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    if (inventoryService.purchaseProduct(HOT_SKU, 1).getStatusCode().isSameCodeAs(HttpStatus.CREATED)) sold.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        int attempts = THREADS * PURCHASES_PER_THREAD;
+        System.out.printf("hot SKU purchase: %d attempts on %d threads, %d sold, %.0f purchases/s%n",
+                attempts, THREADS, sold.get(), attempts / seconds);
+
+        assertEquals(STOCK, sold.get());
+        assertEquals(0, inventoryRepository.findById(HOT_SKU).get().getProductCount());
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void rejectsUnknownProductsAndInvalidCounts() {
+        inventoryRepository.save(new Inventory(2L, 1));
+
+        assertEquals(HttpStatus.BAD_REQUEST, inventoryService.purchaseProduct(3L, 1).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, inventoryService.purchaseProduct(2L, 2).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, inventoryService.purchaseProduct(2L, -1).getStatusCode());
+        assertEquals(1, inventoryRepository.findById(2L).get().getProductCount());
+        inventoryRepository.deleteAll();
+    }
+}
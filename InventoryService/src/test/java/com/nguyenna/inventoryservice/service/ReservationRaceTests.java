@@ -0,0 +1,132 @@
+package com.nguyenna.inventoryservice.service;
+
+import com.nguyenna.inventoryservice.dto.ReservationResponse;
+import com.nguyenna.inventoryservice.entity.Inventory;
+import com.nguyenna.inventoryservice.entity.Reservation;
+import com.nguyenna.inventoryservice.entity.ReservationStatus;
+import com.nguyenna.inventoryservice.repository.InventoryRepository;
+import com.nguyenna.inventoryservice.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Races commit, release and the expiry scan over the same expired reservations and checks every reservation's
+ * stock is either sold or handed back, exactly once.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url = jdbc:h2:mem:reservations;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName = org.h2.Driver",
+        "spring.datasource.username = sa",
+        "spring.datasource.password = ",
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "inventory.reservation.expiry-check-ms = 3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReservationServiceImpl.class, HotStockStore.class})
+class ReservationRaceTests {
+
+    private static final long PRODUCT = 1L;
+    private static final int RESERVATIONS = 200;
+
+    @Autowired
+    private ReservationServiceImpl reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @MockBean
+    private InventoryEventPublisher inventoryEventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void expiryCommitAndReleaseNeverSellOrRestockTwice() throws Exception {
+        // Every unit of the product is held by an already expired reservation
+        inventoryRepository.save(new Inventory(PRODUCT, 0));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            ids.add(reservationRepository.save(Reservation.builder()
+                    .id(UUID.randomUUID().toString())
+                    .status(ReservationStatus.RESERVED)
+                    .items(Map.of(PRODUCT, 1))
+                    .createdAt(0)
+                    .updatedAt(0)
+                    .build()).getId());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> {
+            start.await();
+            for (String id : ids) reservationService.commit(id);
+            return null;
+        }));
+        futures.add(executor.submit(() -> {
+            start.await();
+            for (String id : ids) reservationService.release(id);
+            return null;
+        }));
+        futures.add(executor.submit(() -> {
+            start.await();
+            reservationService.releaseExpiredReservations();
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        long committed = reservationRepository.findAll().stream().filter(reservation -> reservation.getStatus() == ReservationStatus.COMMITTED).count();
+        long released = reservationRepository.findAll().stream().filter(reservation -> reservation.getStatus() == ReservationStatus.RELEASED).count();
+        assertEquals(RESERVATIONS, committed + released);
+        assertEquals(released, inventoryRepository.findById(PRODUCT).get().getProductCount());
+    }
+
+    @Test
+    void aSettledReservationKeepsItsOutcome() {
+        inventoryRepository.save(new Inventory(PRODUCT, 2));
+        String committedId = reservationId(reservationService.reserve(Map.of(PRODUCT, 1)).getBody());
+        String releasedId = reservationId(reservationService.reserve(Map.of(PRODUCT, 1)).getBody());
+
+        assertEquals(HttpStatus.OK, reservationService.commit(committedId).getStatusCode());
+        assertEquals(HttpStatus.OK, reservationService.commit(committedId).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, reservationService.release(committedId).getStatusCode());
+        assertEquals(HttpStatus.OK, reservationService.release(releasedId).getStatusCode());
+        assertEquals(HttpStatus.OK, reservationService.release(releasedId).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, reservationService.commit(releasedId).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, reservationService.commit("unknown").getStatusCode());
+
+        assertEquals(1, inventoryRepository.findById(PRODUCT).get().getProductCount());
+    }
+
+    private String reservationId(Object body) {
+        return ((ReservationResponse) body).reservationId();
+    }
+}
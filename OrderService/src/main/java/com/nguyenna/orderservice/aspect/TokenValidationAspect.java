@@ -1,8 +1,7 @@
 package com.nguyenna.orderservice.aspect;
 
 import com.nguyenna.orderservice.dto.ApiResponse;
-import com.nguyenna.orderservice.dto.Token;
-import com.nguyenna.orderservice.feign.AuthService;
+import com.nguyenna.orderservice.util.UserResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -19,29 +18,17 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 public class TokenValidationAspect {
 
     @Autowired
-    private AuthService authService;
+    private UserResolver userResolver;
 
-    @Around("execution (public * com.saadahmedev.orderservice.service.OrderService.*(..))")
+    @Around("execution (public * com.nguyenna.orderservice.service.OrderService.*(..))")
     public Object validateToken(ProceedingJoinPoint joinPoint) throws Throwable {
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
 
-        if (isTokenValid(request)) {
+        if (userResolver.resolve(request) != null) {
             return joinPoint.proceed();
         }
         else {
             return new ResponseEntity<>(new ApiResponse(false, "User is not authenticated"), HttpStatus.UNAUTHORIZED);
         }
     }
-
-    private boolean isTokenValid(HttpServletRequest request) {
-        String requestHeader = request.getHeader("Authorization");
-        String token = null;
-        if (requestHeader != null && requestHeader.startsWith("Bearer") && requestHeader.length() > 8) token = requestHeader.substring(7);
-        if (token == null) return false;
-        try {
-            return authService.validateToken(new Token(token)).getStatusCode().isSameCodeAs(HttpStatus.OK);
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,50 @@
+package com.nguyenna.orderservice.codec;
+
+/**
+ * Compact binary format: a {@link #MAGIC} byte, the schema id as a varint, then the fields in the order the
+ * schema writes them. The magic byte can never start a JSON document, which lets a reader tell the two formats
+ * apart while producers switch over.
+ */
+public class BinaryEventCodec<T> implements EventCodec<T> {
+
+    public static final byte MAGIC = 0;
+
+    private final SchemaRegistry schemaRegistry;
+    private final String subject;
+    private final Class<T> type;
+
+    public BinaryEventCodec(SchemaRegistry schemaRegistry, String subject, Class<T> type) {
+        this.schemaRegistry = schemaRegistry;
+        this.subject = subject;
+        this.type = type;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] encode(T event) {
+        EventSchema<T> schema = (EventSchema<T>) schemaRegistry.latest(subject);
+        BinaryWriter writer = new BinaryWriter(64);
+        writer.writeByte(MAGIC);
+        writer.writeVarLong(schema.id());
+        schema.write(event, writer);
+
+        return writer.toByteArray();
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        BinaryReader reader = new BinaryReader(data);
+        if (reader.readByte() != MAGIC) throw new IllegalArgumentException("Not a binary event");
+
+        EventSchema<?> schema = schemaRegistry.byId((int) reader.readVarLong());
+        if (!schema.subject().equals(subject)) {
+            throw new IllegalArgumentException("Expected a " + subject + " but got " + schema.subject() + " v" + schema.version());
+        }
+
+        return type.cast(schema.read(reader));
+    }
+}
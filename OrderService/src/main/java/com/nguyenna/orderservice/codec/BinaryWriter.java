@@ -0,0 +1,77 @@
+package com.nguyenna.orderservice.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Appends fields to a growing byte array. Integers are zigzag varints, so small ids take one or two bytes;
+ * strings and symbols are prefixed with their length or index plus one, leaving zero for null.
+ */
+public class BinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) buffer[position++] = (byte) (bits >>> shift);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeUnsignedVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes an enum constant as its position in the schema's symbol list, so the two services' enums only have
+     * to agree on names, not on declaration order.
+     */
+    public void writeSymbol(Enum<?> value, List<String> symbols) {
+        if (value == null) {
+            writeUnsignedVarLong(0);
+            return;
+        }
+        int index = symbols.indexOf(value.name());
+        if (index < 0) throw new IllegalArgumentException(value.name() + " is not one of " + symbols);
+        writeUnsignedVarLong(index + 1L);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeUnsignedVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+    }
+}
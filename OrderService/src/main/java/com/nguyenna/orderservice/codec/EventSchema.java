@@ -0,0 +1,17 @@
+package com.nguyenna.orderservice.codec;
+
+/**
+ * One version of an event's binary layout. A published schema never changes: a new field means a new version
+ * with a new id, registered next to the old one so events already on the topic stay readable.
+ */
+public interface EventSchema<T> {
+    int id();
+
+    String subject();
+
+    int version();
+
+    void write(T event, BinaryWriter writer);
+
+    T read(BinaryReader reader);
+}
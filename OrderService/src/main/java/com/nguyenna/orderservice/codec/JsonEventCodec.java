@@ -0,0 +1,40 @@
+package com.nguyenna.orderservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+/**
+ * The original wire format: the event as a JSON object. Reader and writer come from the shared mapper once per
+ * event type and resolve the type's (de)serializers when built, so no message pays for that lookup.
+ */
+public class JsonEventCodec<T> implements EventCodec<T> {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public JsonEventCodec(ObjectMapper objectMapper, Class<T> type) {
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+    }
+
+    @Override
+    public byte[] encode(T event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot write event as JSON: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read JSON event: " + e.getMessage(), e);
+        }
+    }
+}
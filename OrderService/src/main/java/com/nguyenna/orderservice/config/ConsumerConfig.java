@@ -1,19 +1,72 @@
 package com.nguyenna.orderservice.config;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nguyenna.orderservice.codec.EventDeserializer;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
 import com.nguyenna.orderservice.service.OnMessageReceived;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.List;
 
 @Configuration
 public class ConsumerConfig {
 
+    public static final String PAYMENT_EVENT_TOPIC = "payment-event";
+
     @Autowired
     private OnMessageReceived onMessageReceivedListener;
 
-    @KafkaListener(topics = "payment-event", groupId = "order-group")
-    public void onKafkaEventReceived(String event) throws JsonProcessingException {
-        onMessageReceivedListener.onEvent(event);
+    // One consumer thread per partition; the same value sizes the topic so the two cannot drift apart.
+    // The beans are static because the listener below, in this same class, needs the factory while it is created.
+    @Bean
+    public static NewTopic paymentEventTopic(@Value("${order.payment-events.partitions:3}") int paymentEventPartitions) {
+        return TopicBuilder.name(PAYMENT_EVENT_TOPIC).partitions(paymentEventPartitions).build();
+    }
+
+    @Bean
+    public static ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentEventContainerFactory(
+            KafkaProperties kafkaProperties,
+            EventDeserializer<PaymentEvent> paymentEventDeserializer,
+            @Value("${order.payment-events.partitions:3}") int paymentEventPartitions,
+            @Value("${order.payment-events.retry-interval-ms:1000}") long retryIntervalMs,
+            @Value("${order.payment-events.retry-max-interval-ms:30000}") long retryMaxIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        // A payload that cannot be decoded reaches the listener as null instead of stalling the partition
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(kafkaProperties.buildConsumerProperties(),
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(paymentEventDeserializer)));
+        factory.setBatchListener(true);
+        factory.setConcurrency(paymentEventPartitions);
+        // Offsets are committed once the whole poll has been applied
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // A failed batch is redelivered as a whole, with growing pauses and no attempt limit: skipping it would commit
+        // offsets for payment outcomes that were never applied. ProcessedEventStore makes the retries safe.
+        ExponentialBackOff backOff = new ExponentialBackOff(retryIntervalMs, 2);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+
+        return factory;
+    }
+
+    @KafkaListener(
+            topics = PAYMENT_EVENT_TOPIC,
+            groupId = "order-group",
+            containerFactory = "paymentEventContainerFactory",
+            properties = "max.poll.records=${order.payment-events.max-poll-records:500}"
+    )
+    public void onKafkaEventsReceived(List<PaymentEvent> events) {
+        onMessageReceivedListener.onEvents(events);
     }
 }
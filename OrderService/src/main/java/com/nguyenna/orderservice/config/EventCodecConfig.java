@@ -0,0 +1,37 @@
+package com.nguyenna.orderservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.orderservice.codec.*;
+import com.nguyenna.orderservice.dto.kafka.OrderEvent;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventCodecConfig {
+
+    @Bean
+    public SchemaRegistry schemaRegistry() {
+        return new SchemaRegistry()
+                .register(new OrderEventSchema())
+                .register(new PaymentEventSchema());
+    }
+
+    // "json" until every consumer of order-event reads the binary format, then "binary"
+    @Bean
+    public EventCodec<OrderEvent> orderEventCodec(SchemaRegistry schemaRegistry, ObjectMapper objectMapper,
+                                                  @Value("${order.events.codec:json}") String codec) {
+        return codec.equals("binary")
+                ? new BinaryEventCodec<>(schemaRegistry, OrderEventSchema.SUBJECT, OrderEvent.class)
+                : new JsonEventCodec<>(objectMapper, OrderEvent.class);
+    }
+
+    @Bean
+    public EventDeserializer<PaymentEvent> paymentEventDeserializer(SchemaRegistry schemaRegistry, ObjectMapper objectMapper) {
+        return new EventDeserializer<>(
+                new BinaryEventCodec<>(schemaRegistry, PaymentEventSchema.SUBJECT, PaymentEvent.class),
+                new JsonEventCodec<>(objectMapper, PaymentEvent.class)
+        );
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,10 +28,27 @@ public class OrderController {
         return orderService.createOrder(request, shippingDetails);
     }
 
+    @PostMapping("/checkout")
+    @CircuitBreaker(name = "checkout", fallbackMethod = "fallBack")
+    public ResponseEntity<?> checkout(HttpServletRequest request, @RequestBody ShippingDetailsRequest shippingDetails) {
+        return orderService.checkout(request, shippingDetails);
+    }
+
+    @GetMapping("/checkout/{id}")
+    @CircuitBreaker(name = "getCheckoutStatus", fallbackMethod = "fallBack")
+    public ResponseEntity<?> getCheckoutStatus(HttpServletRequest request, @PathVariable String id) {
+        return orderService.getCheckoutStatus(request, id);
+    }
+
+    @GetMapping(value = "/checkout/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeCheckout(HttpServletRequest request, @PathVariable String id) {
+        return orderService.subscribeCheckout(request, id);
+    }
+
     @GetMapping
     @CircuitBreaker(name = "getOrders", fallbackMethod = "fallBack")
-    public ResponseEntity<?> getOrders(HttpServletRequest request) {
-        return orderService.getOrders(request);
+    public ResponseEntity<?> getOrders(HttpServletRequest request, @RequestParam(required = false) Long before, @RequestParam(defaultValue = "20") int size) {
+        return orderService.getOrders(request, before, size);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,9 @@
+package com.nguyenna.orderservice.dto;
+
+public enum CheckoutStage {
+    ACCEPTED, CART_SNAPSHOT, RESERVING_STOCK, PERSISTING, PLACED, FAILED;
+
+    public boolean isFinished() {
+        return this == PLACED || this == FAILED;
+    }
+}
@@ -0,0 +1,4 @@
+package com.nguyenna.orderservice.dto;
+
+public record CheckoutStatus(String checkoutId, CheckoutStage stage, Long orderId, String message) {
+}
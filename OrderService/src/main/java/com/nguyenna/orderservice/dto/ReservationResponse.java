@@ -0,0 +1,4 @@
+package com.nguyenna.orderservice.dto;
+
+public record ReservationResponse(boolean status, String message, String reservationId) {
+}
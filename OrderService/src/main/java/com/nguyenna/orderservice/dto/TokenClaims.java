@@ -0,0 +1,4 @@
+package com.nguyenna.orderservice.dto;
+
+public record TokenClaims(long userId, String email, String role, String tokenId) {
+}
@@ -0,0 +1,13 @@
+package com.nguyenna.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenVerificationResponse {
+    private boolean valid;
+    private UserResponse user;
+}
@@ -8,6 +8,8 @@ import lombok.*;
 @AllArgsConstructor
 @ToString
 public class OrderEvent {
+    // Unique per event and kept on redelivery, so consumers can drop replays
+    private String eventId;
     private long userId;
     private long orderId;
     private double amount;
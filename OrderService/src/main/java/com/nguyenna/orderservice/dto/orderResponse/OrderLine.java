@@ -0,0 +1,6 @@
+package com.nguyenna.orderservice.dto.orderResponse;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record OrderLine(@JsonIgnore long orderId, long productId, int itemCount, String title, Double price, Integer discount) {
+}
@@ -0,0 +1,10 @@
+package com.nguyenna.orderservice.dto.orderResponse;
+
+import java.util.List;
+
+/**
+ * One page of a user's order history, newest first. Pass {@code nextCursor} as {@code before} to get the
+ * following page; it is null on the last page.
+ */
+public record OrderPage(List<OrderSummary> orders, Long nextCursor) {
+}
@@ -0,0 +1,34 @@
+package com.nguyenna.orderservice.dto.orderResponse;
+
+import com.nguyenna.orderservice.entity.DeliveryStatus;
+import com.nguyenna.orderservice.entity.PaymentStatusEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class OrderSummary {
+    private long id;
+    private double totalPrice;
+    private int discount;
+    private double grandTotal;
+    private DeliveryStatus deliveryStatus;
+    private PaymentStatusEnum paymentStatus;
+    private Date createdAt;
+    private List<OrderLine> products = new ArrayList<>();
+
+    // Used by the JPQL constructor expression in OrderRepository; lines are attached afterwards
+    public OrderSummary(long id, double totalPrice, int discount, double grandTotal, DeliveryStatus deliveryStatus, PaymentStatusEnum paymentStatus, Date createdAt) {
+        this.id = id;
+        this.totalPrice = totalPrice;
+        this.discount = discount;
+        this.grandTotal = grandTotal;
+        this.deliveryStatus = deliveryStatus;
+        this.paymentStatus = paymentStatus;
+        this.createdAt = createdAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nguyenna.orderservice.entity;
 
 public enum DeliveryStatus {
-    DELIVERED, PENDING, CANCELED
+    DELIVERED, PENDING, CANCELED,
+    // Placed, but its reserved stock was released before it could be committed; must be restocked or canceled by hand
+    ON_HOLD
 }
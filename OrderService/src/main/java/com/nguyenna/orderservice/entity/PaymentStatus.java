@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 @Entity
 public class PaymentStatus {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_status_seq")
+    @SequenceGenerator(name = "payment_status_seq", sequenceName = "payment_status_seq", allocationSize = 50)
     @JsonIgnore
     private long id;
     private String transactionId;
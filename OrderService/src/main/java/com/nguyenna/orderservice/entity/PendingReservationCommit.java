@@ -0,0 +1,46 @@
+package com.nguyenna.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A placed order whose stock reservation InventoryService has not confirmed as committed yet. Written in the
+ * order's own transaction and removed once the commit call succeeds, so a failed call is retried rather than
+ * left for the reservation expiry to restock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pending_reservation_commit", indexes = @Index(name = "idx_pending_reservation_commit_created_at", columnList = "createdAt"))
+public class PendingReservationCommit implements Persistable<String> {
+    @Id
+    private String reservationId;
+    private long orderId;
+    private long createdAt;
+    // New rows skip the select a merge would do first; loaded or persisted ones behave normally again
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return reservationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+}
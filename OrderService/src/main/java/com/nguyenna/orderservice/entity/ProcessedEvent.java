@@ -0,0 +1,42 @@
+package com.nguyenna.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "processed_payment_event", indexes = @Index(name = "idx_processed_payment_event_processed_at", columnList = "processedAt"))
+public class ProcessedEvent implements Persistable<String> {
+    // orderId + ":" + eventId
+    @Id
+    private String eventKey;
+    private long orderId;
+    private long processedAt;
+    // New rows skip the select a merge would do first; loaded or persisted ones behave normally again
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return eventKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+}
@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 @Entity
 public class ShippingDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipping_details_seq")
+    @SequenceGenerator(name = "shipping_details_seq", sequenceName = "shipping_details_seq", allocationSize = 50)
     @JsonIgnore
     private long id;
     private String name;
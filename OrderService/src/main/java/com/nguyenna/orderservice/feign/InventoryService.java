@@ -0,0 +1,26 @@
+package com.nguyenna.orderservice.feign;
+
+import com.nguyenna.orderservice.dto.ReservationResponse;
+import com.nguyenna.orderservice.util.AppConstants;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Map;
+
+@Service
+@FeignClient(name = "INVENTORY-SERVICE", url = AppConstants.BASE_URL)
+public interface InventoryService {
+
+    @PostMapping("api/inventory/reserve")
+    ResponseEntity<ReservationResponse> reserveProducts(@RequestBody Map<Long, Integer> items);
+
+    @PostMapping("api/inventory/reserve/{reservationId}/commit")
+    ResponseEntity<ReservationResponse> commitReservation(@PathVariable String reservationId);
+
+    @PostMapping("api/inventory/reserve/{reservationId}/release")
+    ResponseEntity<ReservationResponse> releaseReservation(@PathVariable String reservationId);
+}
@@ -1,18 +1,41 @@
 package com.nguyenna.orderservice.repository;
 
+import com.nguyenna.orderservice.dto.orderResponse.OrderLine;
+import com.nguyenna.orderservice.dto.orderResponse.OrderSummary;
+import com.nguyenna.orderservice.entity.DeliveryStatus;
 import com.nguyenna.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findAllByUserIdOrderByIdDesc(long userId);
+    // Keyset page over (userId, id): a seek on idx_order_user_id instead of an offset scan, and no EAGER children
+    @Query("SELECT new com.nguyenna.orderservice.dto.orderResponse.OrderSummary(o.id, o.totalPrice, o.discount, o.grandTotal, o.deliveryStatus, p.status, o.createdAt) " +
+            "FROM Order o LEFT JOIN o.paymentStatus p WHERE o.userId = :userId AND o.id < :before ORDER BY o.id DESC")
+    List<OrderSummary> findSummariesBefore(@Param("userId") long userId, @Param("before") long before, Pageable pageable);
+
+    // Lines come back in insertion order within each order, so a page renders the same on every request
+    @Query("SELECT new com.nguyenna.orderservice.dto.orderResponse.OrderLine(o.id, p.productId, p.itemCount, p.title, p.price, p.discount) " +
+            "FROM Order o JOIN o.products p WHERE o.id IN :orderIds ORDER BY o.id, p.id")
+    List<OrderLine> findLines(@Param("orderIds") Collection<Long> orderIds);
 
     Optional<Order> findByIdAndUserId(long id, long userId);
 
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.deliveryStatus = :status, o.updatedAt = :updatedAt WHERE o.id = :id")
+    int updateDeliveryStatus(@Param("id") long id, @Param("status") DeliveryStatus status, @Param("updatedAt") Date updatedAt);
+
     void deleteByIdAndUserId(long id, long userId);
 }
@@ -1,9 +1,20 @@
 package com.nguyenna.orderservice.repository;
 
 import com.nguyenna.orderservice.entity.PaymentStatus;
+import com.nguyenna.orderservice.entity.PaymentStatusEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface PaymentStatusRepository extends JpaRepository<PaymentStatus, Long> {
+
+    @Modifying
+    @Query("UPDATE PaymentStatus p SET p.status = :status, p.message = :message " +
+            "WHERE p.id IN (SELECT o.paymentStatus.id FROM Order o WHERE o.id IN :orderIds)")
+    int updateStatusByOrderIds(@Param("orderIds") Collection<Long> orderIds, @Param("status") PaymentStatusEnum status, @Param("message") String message);
 }
@@ -0,0 +1,14 @@
+package com.nguyenna.orderservice.repository;
+
+import com.nguyenna.orderservice.entity.PendingReservationCommit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PendingReservationCommitRepository extends JpaRepository<PendingReservationCommit, String> {
+
+    List<PendingReservationCommit> findAllByCreatedAtLessThanOrderByCreatedAt(long createdAt, Pageable pageable);
+}
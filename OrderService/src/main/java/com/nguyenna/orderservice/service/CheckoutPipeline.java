@@ -0,0 +1,249 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.CheckoutStage;
+import com.nguyenna.orderservice.dto.CheckoutStatus;
+import com.nguyenna.orderservice.dto.ShippingDetailsRequest;
+import com.nguyenna.orderservice.dto.product.Product;
+import com.nguyenna.orderservice.entity.Order;
+import com.nguyenna.orderservice.feign.CartService;
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs checkouts off the request thread. A checkout moves through three stages, each with its own small
+ * worker pool and bounded queue: cart snapshot, stock reservation, and persistence (order plus its outbox
+ * event, then reservation commit and cart clear). When a later stage's queue is full the worker handing it
+ * work runs it itself, which slows the stages before it until the intake queue fills and new checkouts are
+ * rejected with {@link RejectedExecutionException}.
+ * <p>
+ * Status is kept on this node for {@code order.checkout.status-ttl-ms} after a checkout finishes, and is
+ * pushed to any SSE subscribers as it changes.
+ */
+@Component
+public class CheckoutPipeline {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderPlacement orderPlacement;
+
+    @Value("${order.checkout.workers:4}")
+    private int workers;
+
+    @Value("${order.checkout.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${order.checkout.status-ttl-ms:600000}")
+    private long statusTtlMs;
+
+    @Value("${order.checkout.sse-timeout-ms:60000}")
+    private long sseTimeoutMs;
+
+    private final Map<String, Checkout> checkouts = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor cartStage;
+    private ThreadPoolExecutor reservationStage;
+    private ThreadPoolExecutor persistenceStage;
+
+    private final Logger logger = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    @PostConstruct
+    public void init() {
+        cartStage = newStage("checkout-cart", new ThreadPoolExecutor.AbortPolicy());
+        reservationStage = newStage("checkout-reservation", new ThreadPoolExecutor.CallerRunsPolicy());
+        persistenceStage = newStage("checkout-persistence", new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Accepts a checkout for the user's current cart and returns its id right away.
+     *
+     * @throws RejectedExecutionException when the pipeline is saturated
+     */
+    public CheckoutStatus submit(long userId, ShippingDetailsRequest shippingDetailsRequest) {
+        Checkout checkout = new Checkout(UUID.randomUUID().toString(), userId, shippingDetailsRequest);
+        checkouts.put(checkout.id, checkout);
+        // Taken before the hand-off, since a worker may advance the checkout before execute returns
+        CheckoutStatus accepted = checkout.status();
+        try {
+            cartStage.execute(() -> run(checkout, this::snapshotCart));
+        } catch (RejectedExecutionException e) {
+            checkouts.remove(checkout.id);
+            throw e;
+        }
+
+        return accepted;
+    }
+
+    /**
+     * Returns the checkout's status, or null if it is unknown on this node or belongs to another user.
+     */
+    public CheckoutStatus getStatus(String checkoutId, long userId) {
+        Checkout checkout = find(checkoutId, userId);
+
+        return checkout == null ? null : checkout.status();
+    }
+
+    /**
+     * Streams the checkout's status as "status" events, starting with the current one, and completes once the
+     * checkout is placed or failed. Returns null if the checkout is unknown.
+     */
+    public SseEmitter subscribe(String checkoutId, long userId) {
+        Checkout checkout = find(checkoutId, userId);
+        if (checkout == null) return null;
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> checkout.emitters.remove(emitter));
+        emitter.onTimeout(() -> checkout.emitters.remove(emitter));
+        checkout.emitters.add(emitter);
+        // Sent after registering so a stage change in between is not lost; a duplicate status is harmless
+        send(checkout, emitter, checkout.status());
+
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${order.checkout.status-ttl-ms:600000}")
+    public void evictFinished() {
+        long cutoff = System.currentTimeMillis() - statusTtlMs;
+        checkouts.values().removeIf(checkout -> checkout.stage.isFinished() && checkout.updatedAt < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor stage : List.of(cartStage, reservationStage, persistenceStage)) {
+            stage.shutdown();
+            stage.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void snapshotCart(Checkout checkout) {
+        advance(checkout, CheckoutStage.CART_SNAPSHOT, null);
+        List<Product> productList = cartService.getCartItems(checkout.userId).getBody();
+        if (productList == null || productList.isEmpty()) {
+            fail(checkout, "There are no products in your cart");
+            return;
+        }
+
+        checkout.order = orderPlacement.buildOrder(checkout.userId, productList, checkout.shippingDetailsRequest);
+        reservationStage.execute(() -> run(checkout, this::reserveStock));
+    }
+
+    private void reserveStock(Checkout checkout) {
+        advance(checkout, CheckoutStage.RESERVING_STOCK, null);
+        try {
+            checkout.reservationId = orderPlacement.reserve(checkout.order);
+        } catch (FeignException e) {
+            fail(checkout, e.status() == HttpStatus.BAD_REQUEST.value() ? "Some products in your cart are out of stock" : e.getLocalizedMessage());
+            return;
+        } catch (RuntimeException e) {
+            // FeignErrorDecoder turns a 503 from inventory into a plain RuntimeException prefixed with SNAE_
+            String message = e.getMessage() != null && e.getMessage().startsWith("SNAE_") ? e.getMessage().substring("SNAE_".length()) : e.getLocalizedMessage();
+            fail(checkout, message);
+            return;
+        }
+
+        persistenceStage.execute(() -> run(checkout, this::persistOrder));
+    }
+
+    private void persistOrder(Checkout checkout) {
+        advance(checkout, CheckoutStage.PERSISTING, null);
+        Order savedOrder = orderPlacement.persist(checkout.order, checkout.reservationId);
+        checkout.orderId = savedOrder.getId();
+        checkout.order = null;
+        orderPlacement.complete(savedOrder, checkout.reservationId);
+
+        advance(checkout, CheckoutStage.PLACED, "Order placed successfully");
+    }
+
+    private void run(Checkout checkout, Consumer<Checkout> stage) {
+        try {
+            stage.accept(checkout);
+        } catch (Exception e) {
+            logger.error("Checkout " + checkout.id + " failed: " + e.getMessage());
+            fail(checkout, e.getLocalizedMessage());
+        }
+    }
+
+    private void fail(Checkout checkout, String message) {
+        if (checkout.reservationId != null && checkout.orderId == null) orderPlacement.releaseReservation(checkout.reservationId);
+        checkout.order = null;
+        advance(checkout, CheckoutStage.FAILED, message);
+    }
+
+    private void advance(Checkout checkout, CheckoutStage stage, String message) {
+        CheckoutStatus status;
+        synchronized (checkout) {
+            checkout.stage = stage;
+            checkout.message = message;
+            checkout.updatedAt = System.currentTimeMillis();
+            status = checkout.status();
+        }
+        for (SseEmitter emitter : checkout.emitters) send(checkout, emitter, status);
+    }
+
+    private void send(Checkout checkout, SseEmitter emitter, CheckoutStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            if (status.stage().isFinished()) emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; drop the emitter and let the others carry on
+            checkout.emitters.remove(emitter);
+        }
+    }
+
+    private Checkout find(String checkoutId, long userId) {
+        Checkout checkout = checkouts.get(checkoutId);
+
+        return checkout == null || checkout.userId != userId ? null : checkout;
+    }
+
+    private ThreadPoolExecutor newStage(String name, RejectedExecutionHandler rejectionHandler) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory, rejectionHandler);
+    }
+
+    private static class Checkout {
+        private final String id;
+        private final long userId;
+        private final ShippingDetailsRequest shippingDetailsRequest;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile CheckoutStage stage = CheckoutStage.ACCEPTED;
+        private volatile String message;
+        private volatile long updatedAt = System.currentTimeMillis();
+        private volatile Order order;
+        private volatile String reservationId;
+        private volatile Long orderId;
+
+        private Checkout(String id, long userId, ShippingDetailsRequest shippingDetailsRequest) {
+            this.id = id;
+            this.userId = userId;
+            this.shippingDetailsRequest = shippingDetailsRequest;
+        }
+
+        private synchronized CheckoutStatus status() {
+            return new CheckoutStatus(id, stage, orderId, message);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.nguyenna.orderservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+
+import java.util.List;
 
 public interface OnMessageReceived {
-    void onEvent(String event) throws JsonProcessingException;
+    void onEvents(List<PaymentEvent> events);
 }
@@ -0,0 +1,177 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.codec.EventCodec;
+import com.nguyenna.orderservice.dto.ReservationResponse;
+import com.nguyenna.orderservice.dto.ShippingDetailsRequest;
+import com.nguyenna.orderservice.dto.kafka.OrderEvent;
+import com.nguyenna.orderservice.dto.product.Product;
+import com.nguyenna.orderservice.entity.*;
+import com.nguyenna.orderservice.feign.CartService;
+import com.nguyenna.orderservice.feign.InventoryService;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import com.nguyenna.orderservice.repository.PendingReservationCommitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * The steps of placing an order, shared by the synchronous {@code POST /api/order} path and the staged
+ * {@link CheckoutPipeline}.
+ */
+@Component
+public class OrderPlacement {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PendingReservationCommitRepository pendingReservationCommitRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EventCodec<OrderEvent> orderEventCodec;
+
+    private final Logger logger = LoggerFactory.getLogger(OrderPlacement.class);
+
+    public Order buildOrder(long userId, List<Product> productList, ShippingDetailsRequest shippingDetailsRequest) {
+        List<com.nguyenna.orderservice.entity.Product> productCountList = new ArrayList<>();
+        double totalPrice = 0;
+        double grandTotal = 0;
+
+        for (Product product : productList) {
+            productCountList.add(
+                    com.nguyenna.orderservice.entity.Product.builder()
+                            .productId(product.getId())
+                            .itemCount(product.getItemCount())
+                            .title(product.getTitle())
+                            .price(product.getPrice())
+                            .discount(product.getDiscount())
+                            .build()
+            );
+            totalPrice += (product.getPrice() * product.getItemCount());
+            double discountPrice;
+            if (product.getDiscount() == 0) discountPrice = product.getPrice() * product.getItemCount();
+            else {
+                discountPrice = (product.getPrice() * product.getItemCount()) - (product.getPrice() * product.getItemCount() * product.getDiscount()) / 100;
+            }
+            grandTotal += discountPrice;
+        }
+
+        PaymentStatus paymentStatus = PaymentStatus.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .status(PaymentStatusEnum.PENDING)
+                .amount(grandTotal)
+                .message(null)
+                .payType(shippingDetailsRequest.getPayType())
+                .build();
+
+        ShippingDetails shippingDetails = ShippingDetails.builder()
+                .name(shippingDetailsRequest.getName())
+                .email(shippingDetailsRequest.getEmail())
+                .phone(shippingDetailsRequest.getPhone())
+                .address(shippingDetailsRequest.getAddress())
+                .build();
+
+        Date creationTime = new Date();
+        return Order.builder()
+                .userId(userId)
+                .totalPrice(totalPrice)
+                .discount(0)
+                .grandTotal(grandTotal)
+                .products(productCountList)
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .shippingDetails(shippingDetails)
+                .paymentStatus(paymentStatus) //This will come from payment service using Kafka (SAGA Choreography Architecture)
+                .createdAt(creationTime)
+                .updatedAt(creationTime)
+                .build();
+    }
+
+    /**
+     * Holds stock for every line of the order. Throws the Feign exception of the inventory call, which is a
+     * 400 when some product is out of stock.
+     */
+    public String reserve(Order order) {
+        Map<Long, Integer> reservationItems = new HashMap<>();
+        for (com.nguyenna.orderservice.entity.Product product : order.getProducts()) {
+            reservationItems.merge(product.getProductId(), product.getItemCount(), Integer::sum);
+        }
+
+        ReservationResponse reservationResponse = inventoryService.reserveProducts(reservationItems).getBody();
+        assert reservationResponse != null;
+
+        return reservationResponse.reservationId();
+    }
+
+    /**
+     * One transaction for the whole aggregate: children are cascaded from the order with pooled sequence ids,
+     * so Hibernate can batch their inserts, and the event commits with it for the relay to publish. The pending
+     * commit of the reservation is recorded in the same transaction, see {@link ReservationCommitRetrier}.
+     */
+    public Order persist(Order order, String reservationId) {
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            pendingReservationCommitRepository.save(PendingReservationCommit.builder()
+                    .reservationId(reservationId)
+                    .orderId(saved.getId())
+                    .createdAt(System.currentTimeMillis())
+                    .build());
+
+            OrderEvent orderEvent = OrderEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .orderId(saved.getId())
+                    .userId(saved.getUserId())
+                    .amount(saved.getGrandTotal())
+                    .payType(saved.getPaymentStatus().getPayType())
+                    .message("An order has been created for user " + saved.getUserId())
+                    .build();
+            outboxService.enqueue(OrderServiceImpl.ORDER_EVENT_TOPIC, String.valueOf(saved.getId()), orderEventCodec.encode(orderEvent));
+
+            return saved;
+        });
+        assert savedOrder != null;
+
+        return savedOrder;
+    }
+
+    /**
+     * The order is placed at this point, so these follow-ups do not fail the checkout. A reservation that cannot
+     * be committed now stays pending and is retried by {@link ReservationCommitRetrier}.
+     */
+    public void complete(Order savedOrder, String reservationId) {
+        try {
+            inventoryService.commitReservation(reservationId);
+            pendingReservationCommitRepository.deleteById(reservationId);
+        } catch (Exception e) {
+            logger.warn("Failed to commit reservation " + reservationId + " for order " + savedOrder.getId() + ", will retry: " + e.getMessage());
+        }
+        try {
+            cartService.removeCartByUserId(savedOrder.getUserId());
+        } catch (Exception e) {
+            logger.error("Failed to clear cart of user " + savedOrder.getUserId() + ": " + e.getMessage());
+        }
+    }
+
+    public void releaseReservation(String reservationId) {
+        try {
+            inventoryService.releaseReservation(reservationId);
+        } catch (Exception e) {
+            logger.error("Failed to release reservation " + reservationId + ": " + e.getMessage());
+        }
+    }
+}
@@ -10,7 +10,13 @@ public interface OrderService {
 
     ResponseEntity<?> createOrder(HttpServletRequest request, ShippingDetailsRequest shippingDetailsRequest);
 
-    ResponseEntity<?> getOrders(HttpServletRequest request);
+    ResponseEntity<?> checkout(HttpServletRequest request, ShippingDetailsRequest shippingDetailsRequest);
+
+    ResponseEntity<?> getCheckoutStatus(HttpServletRequest request, String checkoutId);
+
+    ResponseEntity<?> subscribeCheckout(HttpServletRequest request, String checkoutId);
+
+    ResponseEntity<?> getOrders(HttpServletRequest request, Long before, int size);
 
     ResponseEntity<?> getOrder(HttpServletRequest request, long id);
 
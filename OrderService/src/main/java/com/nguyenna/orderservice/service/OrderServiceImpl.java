@@ -1,60 +1,52 @@
 package com.nguyenna.orderservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nguyenna.orderservice.dto.*;
 import com.nguyenna.orderservice.entity.*;
 import com.nguyenna.orderservice.repository.OrderRepository;
-import com.nguyenna.orderservice.repository.PaymentStatusRepository;
-import com.nguyenna.orderservice.repository.ProductCountRepository;
-import com.nguyenna.orderservice.repository.ShippingDetailsRepository;
-import com.saadahmedev.orderservice.dto.*;
-import com.nguyenna.orderservice.dto.kafka.OrderEvent;
-import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
-import com.nguyenna.orderservice.dto.orderResponse.OrderResponse;
+import com.nguyenna.orderservice.dto.orderResponse.OrderLine;
+import com.nguyenna.orderservice.dto.orderResponse.OrderPage;
+import com.nguyenna.orderservice.dto.orderResponse.OrderSummary;
 import com.nguyenna.orderservice.dto.product.Product;
-import com.saadahmedev.orderservice.entity.*;
-import com.nguyenna.orderservice.feign.AuthService;
 import com.nguyenna.orderservice.feign.CartService;
-import com.nguyenna.orderservice.feign.ProductService;
+import com.nguyenna.orderservice.util.UserResolver;
+import feign.FeignException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
-public class OrderServiceImpl implements OrderService, OnMessageReceived {
+public class OrderServiceImpl implements OrderService {
 
-    @Autowired
-    private OrderRepository orderRepository;
+    public static final String ORDER_EVENT_TOPIC = "order-event";
+    private static final int MAX_ORDER_PAGE_SIZE = 100;
 
     @Autowired
-    private PaymentStatusRepository paymentStatusRepository;
-
-    @Autowired
-    private ShippingDetailsRepository shippingDetailsRepository;
+    private OrderRepository orderRepository;
 
     @Autowired
-    private ProductCountRepository productCountRepository;
+    private UserResolver userResolver;
 
     @Autowired
-    private AuthService authService;
+    private CartService cartService;
 
     @Autowired
-    private CartService cartService;
+    private ProductResolver productResolver;
 
     @Autowired
-    private ProductService productService;
+    private OrderPlacement orderPlacement;
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private CheckoutPipeline checkoutPipeline;
 
     private Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
 
@@ -64,94 +56,88 @@ public class OrderServiceImpl implements OrderService, OnMessageReceived {
         if (userId == -1) return userNotFound();
 
         List<Product> productList = cartService.getCartItems(userId).getBody();
-        List<com.nguyenna.orderservice.entity.Product> productCountList = new ArrayList<>();
         assert productList != null;
         if (productList.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "There are no products in your cart"), HttpStatus.BAD_REQUEST);
 
-        double totalPrice = 0;
-        double grandTotal = 0;
-
-        for (Product product : productList) {
-            productCountList.add(
-                    com.nguyenna.orderservice.entity.Product.builder()
-                            .productId(product.getId())
-                            .itemCount(product.getItemCount())
-                            .build()
-            );
-            totalPrice += (product.getPrice() * product.getItemCount());
-            double discountPrice;
-            if (product.getDiscount() == 0) discountPrice = product.getPrice() * product.getItemCount();
-            else {
-                discountPrice = (product.getPrice() * product.getItemCount()) - (product.getPrice() * product.getItemCount() * product.getDiscount()) / 100;
+        Order order = orderPlacement.buildOrder(userId, productList, shippingDetailsRequest);
+
+        String reservationId;
+        try {
+            reservationId = orderPlacement.reserve(order);
+        } catch (FeignException e) {
+            if (e.status() == HttpStatus.BAD_REQUEST.value()) return new ResponseEntity<>(new ApiResponse(false, "Some products in your cart are out of stock"), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (RuntimeException e) {
+            // FeignErrorDecoder turns a 503 from inventory into a plain RuntimeException prefixed with SNAE_
+            if (e.getMessage() != null && e.getMessage().startsWith("SNAE_")) {
+                return new ResponseEntity<>(new ApiResponse(false, e.getMessage().substring("SNAE_".length())), HttpStatus.SERVICE_UNAVAILABLE);
             }
-            grandTotal += discountPrice;
+            return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        PaymentStatus paymentStatus = PaymentStatus.builder()
-                .transactionId(UUID.randomUUID().toString())
-                .status(PaymentStatusEnum.PENDING)
-                .amount(grandTotal)
-                .message(null)
-                .payType(shippingDetailsRequest.getPayType())
-                .build();
-
-        ShippingDetails shippingDetails = ShippingDetails.builder()
-                .name(shippingDetailsRequest.getName())
-                .email(shippingDetailsRequest.getEmail())
-                .phone(shippingDetailsRequest.getPhone())
-                .address(shippingDetailsRequest.getAddress())
-                .build();
-
-        Date creationTime = new Date();
-        Order order = Order.builder()
-                .userId(userId)
-                .totalPrice(totalPrice)
-                .discount(0)
-                .grandTotal(grandTotal)
-                .products(productCountList)
-                .deliveryStatus(DeliveryStatus.PENDING)
-                .shippingDetails(shippingDetails)
-                .paymentStatus(paymentStatus) //This will come from payment service using Kafka (SAGA Choreography Architecture)
-                .createdAt(creationTime)
-                .updatedAt(creationTime)
-                .build();
-
+        Order savedOrder;
         try {
-            productCountRepository.saveAll(productCountList);
-            shippingDetailsRepository.save(shippingDetails);
-            paymentStatusRepository.save(paymentStatus);
-            cartService.removeCartByUserId(userId);
-            Order savedOrder = orderRepository.save(order);
-
-            OrderEvent orderEvent = OrderEvent.builder()
-                    .orderId(savedOrder.getId())
-                    .userId(userId)
-                    .amount(grandTotal)
-                    .payType(shippingDetailsRequest.getPayType())
-                    .message("An order has been created for user " + userId)
-                    .build();
-
-            String orderEventSerialized = new ObjectMapper().writeValueAsString(orderEvent);
-            kafkaTemplate.send("order-event", orderEventSerialized);
-
-            return new ResponseEntity<>(new OrderPlaceResponse(true, "Order placed successfully", savedOrder.getId()), HttpStatus.CREATED);
+            savedOrder = orderPlacement.persist(order, reservationId);
         } catch (Exception e) {
+            orderPlacement.releaseReservation(reservationId);
             return new ResponseEntity<>(new ApiResponse(false, e.getLocalizedMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
+        orderPlacement.complete(savedOrder, reservationId);
+
+        return new ResponseEntity<>(new OrderPlaceResponse(true, "Order placed successfully", savedOrder.getId()), HttpStatus.CREATED);
+    }
+
+    @Override
+    public ResponseEntity<?> checkout(HttpServletRequest request, ShippingDetailsRequest shippingDetailsRequest) {
+        long userId = getUserId(request);
+        if (userId == -1) return userNotFound();
+
+        try {
+            return new ResponseEntity<>(checkoutPipeline.submit(userId, shippingDetailsRequest), HttpStatus.ACCEPTED);
+        } catch (RejectedExecutionException e) {
+            return new ResponseEntity<>(new ApiResponse(false, "Too many checkouts in progress, try again shortly"), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getCheckoutStatus(HttpServletRequest request, String checkoutId) {
+        CheckoutStatus status = checkoutPipeline.getStatus(checkoutId, getUserId(request));
+        if (status == null) return checkoutNotFound();
+
+        return new ResponseEntity<>(status, HttpStatus.OK);
     }
 
     @Override
-    public ResponseEntity<?> getOrders(HttpServletRequest request) {
+    public ResponseEntity<?> subscribeCheckout(HttpServletRequest request, String checkoutId) {
+        SseEmitter emitter = checkoutPipeline.subscribe(checkoutId, getUserId(request));
+        if (emitter == null) return checkoutNotFound();
+
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<?> getOrders(HttpServletRequest request, Long before, int size) {
         long userId = getUserId(request);
-        List<Order> orderList = orderRepository.findAllByUserIdOrderByIdDesc(userId);
-        if (orderList.isEmpty()) return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
+        int pageSize = Math.max(1, Math.min(size, MAX_ORDER_PAGE_SIZE));
+
+        // One extra row tells whether there is a next page without a count query
+        List<OrderSummary> orders = orderRepository.findSummariesBefore(userId, before == null ? Long.MAX_VALUE : before, PageRequest.of(0, pageSize + 1));
+        Long nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+            nextCursor = orders.get(pageSize - 1).getId();
+        }
 
-        List<OrderResponse> orderResponseList = new ArrayList<>();
-        for (Order order : orderList) {
-            orderResponseList.add(mapToOrderResponse(order));
+        if (!orders.isEmpty()) {
+            Map<Long, OrderSummary> ordersById = new HashMap<>();
+            for (OrderSummary order : orders) ordersById.put(order.getId(), order);
+            List<OrderLine> lines = orderRepository.findLines(ordersById.keySet());
+            for (OrderLine line : fillLegacyLines(lines)) {
+                ordersById.get(line.orderId()).getProducts().add(line);
+            }
         }
 
-        return new ResponseEntity<>(orderResponseList, HttpStatus.OK);
+        return new ResponseEntity<>(new OrderPage(orders, nextCursor), HttpStatus.OK);
     }
 
     @Override
@@ -160,7 +146,7 @@ public class OrderServiceImpl implements OrderService, OnMessageReceived {
         Optional<Order> optionalOrder = orderRepository.findByIdAndUserId(id, userId);
         if (optionalOrder.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Order not found"), HttpStatus.BAD_REQUEST);
 
-        return new ResponseEntity<>(mapToOrderResponse(optionalOrder.get()), HttpStatus.OK);
+        return new ResponseEntity<>(productResolver.toOrderResponses(List.of(optionalOrder.get())).get(0), HttpStatus.OK);
     }
 
     @Override
@@ -178,58 +164,45 @@ public class OrderServiceImpl implements OrderService, OnMessageReceived {
         }
     }
 
-    private OrderResponse mapToOrderResponse(Order order) {
-        Map<Long, Integer> productItemCount = new HashMap<>();
-        List<Long> productIds = new ArrayList<>();
+    /**
+     * Lines placed before products were captured on the order have no title; those are resolved across the
+     * whole page with one ProductService call. History is still served if that call fails.
+     */
+    private List<OrderLine> fillLegacyLines(List<OrderLine> lines) {
+        List<Long> legacyProductIds = new ArrayList<>();
+        for (OrderLine line : lines) {
+            if (line.title() == null) legacyProductIds.add(line.productId());
+        }
+        if (legacyProductIds.isEmpty()) return lines;
 
-        for (com.nguyenna.orderservice.entity.Product product : order.getProducts()) {
-            productItemCount.put(product.getProductId(), product.getItemCount());
-            productIds.add(product.getProductId());
+        Map<Long, Product> products;
+        try {
+            products = productResolver.resolve(legacyProductIds);
+        } catch (Exception e) {
+            logger.error("Failed to resolve products of legacy order lines: " + e.getMessage());
+            return lines;
         }
 
-        List<Product> productList = productService.getCartProducts(productIds).getBody();
-        assert productList != null;
-        for (Product product : productList) {
-            product.setItemCount(productItemCount.get(product.getId()));
+        List<OrderLine> filledLines = new ArrayList<>();
+        for (OrderLine line : lines) {
+            Product product = line.title() == null ? products.get(line.productId()) : null;
+            filledLines.add(product == null ? line : new OrderLine(line.orderId(), line.productId(), line.itemCount(), product.getTitle(), product.getPrice(), product.getDiscount()));
         }
 
-        return OrderResponse.builder()
-                .id(order.getId())
-                .totalPrice(order.getTotalPrice())
-                .discount(order.getDiscount())
-                .grandTotal(order.getGrandTotal())
-                .products(productList)
-                .deliveryStatus(order.getDeliveryStatus())
-                .shippingDetails(order.getShippingDetails())
-                .paymentStatus(order.getPaymentStatus())
-                .createdAt(order.getCreatedAt())
-                .updatedAt(order.getUpdatedAt())
-                .build();
+        return filledLines;
     }
 
     private long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization").substring(7);
-        UserResponse user = authService.getUser(new Token(token)).getBody();
+        TokenClaims claims = userResolver.resolve(request);
 
-        return user == null ? -1 : user.getId();
+        return claims == null ? -1 : claims.userId();
     }
 
     private ResponseEntity<?> userNotFound() {
         return new ResponseEntity<>(new ApiResponse(false, "User not found"), HttpStatus.BAD_REQUEST);
     }
 
-    @Override
-    public void onEvent(String event) throws JsonProcessingException {
-        PaymentEvent paymentEvent = new ObjectMapper().readValue(event, PaymentEvent.class);
-        logger.info(String.valueOf(paymentEvent));
-        Order order = orderRepository.findById(paymentEvent.getOrderId()).get();
-        order.getPaymentStatus().setStatus(paymentEvent.getPaymentStatus());
-        order.getPaymentStatus().setMessage(paymentEvent.getMessage());
-
-        try {
-            orderRepository.save(order);
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        }
+    private ResponseEntity<?> checkoutNotFound() {
+        return new ResponseEntity<>(new ApiResponse(false, "Checkout not found"), HttpStatus.NOT_FOUND);
     }
 }
@@ -0,0 +1,106 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.entity.OutboxEvent;
+import com.nguyenna.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves committed outbox rows to Kafka in batches. Rows are sent in id order and only the prefix acknowledged
+ * by the broker is deleted, so an event is never lost and is only sent again if an earlier one in its batch
+ * failed. Relay lag is exposed as {@code order.outbox.lag} (age of the oldest unsent row) and
+ * {@code order.outbox.pending}, and the commit-to-ack delay of each event as {@code order.outbox.delivery}.
+ */
+@Component
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private Timer deliveryTimer;
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("order.outbox.lag", oldestPendingAt, oldest -> oldest.get() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest.get()) / 1000.0)
+                .description("Age of the oldest order event not yet acknowledged by Kafka")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.pending", pending, AtomicLong::get)
+                .description("Order events waiting in the outbox after the last relay run")
+                .register(meterRegistry);
+        deliveryTimer = Timer.builder("order.outbox.delivery")
+                .description("Time from outbox commit to Kafka acknowledgement")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-ms:200}")
+    @Transactional
+    public int relay() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForRelay(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            oldestPendingAt.set(0);
+            pending.set(0);
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) futures.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sentIds.add(batch.get(i).getId());
+                deliveryTimer.record(Math.max(0, System.currentTimeMillis() - batch.get(i).getCreatedAt()), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                logger.error("Failed to relay outbox event " + batch.get(i).getId() + ": " + e.getMessage());
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        if (sentIds.size() == batch.size() && batch.size() < batchSize) {
+            oldestPendingAt.set(0);
+            pending.set(0);
+        } else {
+            oldestPendingAt.set(outboxEventRepository.findFirstByOrderByIdAsc().map(OutboxEvent::getCreatedAt).orElse(0L));
+            pending.set(outboxEventRepository.count());
+        }
+
+        return sentIds.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.entity.OutboxEvent;
+import com.nguyenna.orderservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Queues a Kafka message in the {@code order_outbox} table. It must run inside the transaction that writes the
+ * order, so the order and its event commit or roll back together; {@link OutboxRelay} does the actual send.
+ * The payload is stored already encoded, in whichever format the event codec is configured for.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, byte[] payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .createdAt(System.currentTimeMillis())
+                .build());
+    }
+}
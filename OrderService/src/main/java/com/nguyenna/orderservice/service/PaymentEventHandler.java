@@ -0,0 +1,80 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import com.nguyenna.orderservice.entity.PaymentStatusEnum;
+import com.nguyenna.orderservice.repository.PaymentStatusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Applies a poll's worth of payment events at once. Events are deduplicated by order (the latest wins) and
+ * grouped by outcome, so a batch costs one bulk {@code UPDATE} per distinct status and message rather than a
+ * load and save of every order graph. Replays are dropped through {@link ProcessedEventStore}, whose keys
+ * commit with the updates. Malformed events are logged and skipped; a database failure fails the whole batch so
+ * the container redelivers it before committing offsets.
+ */
+@Service
+public class PaymentEventHandler implements OnMessageReceived {
+
+    @Autowired
+    private PaymentStatusRepository paymentStatusRepository;
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    private final Logger logger = LoggerFactory.getLogger(PaymentEventHandler.class);
+
+    @Override
+    @Transactional
+    public void onEvents(List<PaymentEvent> events) {
+        List<PaymentEvent> paymentEvents = new ArrayList<>();
+        Map<String, Long> orderIdsByKey = new LinkedHashMap<>();
+        for (PaymentEvent paymentEvent : events) {
+            // The deserializer hands over undecodable payloads as null
+            if (paymentEvent == null) {
+                logger.error("Skipping malformed payment event");
+                continue;
+            }
+            paymentEvents.add(paymentEvent);
+            if (paymentEvent.getEventId() != null) {
+                orderIdsByKey.put(ProcessedEventStore.key(paymentEvent.getOrderId(), paymentEvent.getEventId()), paymentEvent.getOrderId());
+            }
+        }
+
+        // Events from producers that predate event ids cannot be deduplicated and are always applied
+        Set<String> unprocessed = processedEventStore.filterUnprocessed(orderIdsByKey.keySet());
+        orderIdsByKey.keySet().retainAll(unprocessed);
+        Map<Long, PaymentEvent> latestByOrder = new LinkedHashMap<>();
+        for (PaymentEvent paymentEvent : paymentEvents) {
+            if (paymentEvent.getEventId() == null || unprocessed.contains(ProcessedEventStore.key(paymentEvent.getOrderId(), paymentEvent.getEventId()))) {
+                latestByOrder.put(paymentEvent.getOrderId(), paymentEvent);
+            }
+        }
+        if (latestByOrder.size() < paymentEvents.size()) {
+            logger.info("Dropped " + (paymentEvents.size() - latestByOrder.size()) + " replayed or superseded payment event(s)");
+        }
+
+        Map<Outcome, List<Long>> orderIdsByOutcome = new HashMap<>();
+        for (PaymentEvent paymentEvent : latestByOrder.values()) {
+            orderIdsByOutcome.computeIfAbsent(new Outcome(paymentEvent.getPaymentStatus(), paymentEvent.getMessage()), outcome -> new ArrayList<>())
+                    .add(paymentEvent.getOrderId());
+        }
+
+        int updated = 0;
+        for (Map.Entry<Outcome, List<Long>> entry : orderIdsByOutcome.entrySet()) {
+            updated += paymentStatusRepository.updateStatusByOrderIds(entry.getValue(), entry.getKey().status(), entry.getKey().message());
+        }
+        if (updated < latestByOrder.size()) {
+            logger.warn("Payment events for " + (latestByOrder.size() - updated) + " unknown order(s) were ignored");
+        }
+        processedEventStore.markProcessed(orderIdsByKey);
+    }
+
+    private record Outcome(PaymentStatusEnum status, String message) {
+    }
+}
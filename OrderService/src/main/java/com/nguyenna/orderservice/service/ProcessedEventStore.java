@@ -0,0 +1,99 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.entity.ProcessedEvent;
+import com.nguyenna.orderservice.repository.ProcessedEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Remembers which payment events have been applied, keyed by {@code orderId:eventId}. Recent keys sit in a
+ * bounded in-memory LRU set, so most replays are dropped with a hash lookup; anything not found there is
+ * checked against {@code processed_payment_event} in one query per batch. Keys are written in the same
+ * transaction as the status update they guard and only enter memory once it commits.
+ */
+@Component
+public class ProcessedEventStore {
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Value("${order.dedup.max-cached-keys:100000}")
+    private int maxCachedKeys;
+
+    @Value("${order.dedup.retention-ms:604800000}")
+    private long retentionMs;
+
+    private Set<String> recentKeys;
+
+    @PostConstruct
+    public void init() {
+        recentKeys = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxCachedKeys;
+            }
+        });
+    }
+
+    public static String key(long orderId, String eventId) {
+        return orderId + ":" + eventId;
+    }
+
+    /**
+     * Returns the keys among {@code keys} that have not been processed yet.
+     */
+    public Set<String> filterUnprocessed(Collection<String> keys) {
+        Set<String> unprocessed = new LinkedHashSet<>();
+        synchronized (recentKeys) {
+            for (String key : keys) {
+                if (!recentKeys.contains(key)) unprocessed.add(key);
+            }
+        }
+        if (unprocessed.isEmpty()) return unprocessed;
+
+        List<String> persisted = processedEventRepository.findAllById(unprocessed).stream().map(ProcessedEvent::getEventKey).toList();
+        unprocessed.removeAll(persisted);
+        remember(persisted);
+
+        return unprocessed;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markProcessed(Map<String, Long> orderIdsByKey) {
+        if (orderIdsByKey.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        List<ProcessedEvent> events = new ArrayList<>();
+        orderIdsByKey.forEach((key, orderId) -> events.add(ProcessedEvent.builder().eventKey(key).orderId(orderId).processedAt(now).build()));
+        processedEventRepository.saveAll(events);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(orderIdsByKey.keySet());
+            }
+        });
+    }
+
+    // Redeliveries come within minutes; keys only need to outlive the longest plausible replay
+    @Scheduled(fixedDelayString = "${order.dedup.cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        processedEventRepository.deleteAllProcessedBefore(System.currentTimeMillis() - retentionMs);
+    }
+
+    private void remember(Collection<String> keys) {
+        synchronized (recentKeys) {
+            recentKeys.addAll(keys);
+        }
+    }
+}
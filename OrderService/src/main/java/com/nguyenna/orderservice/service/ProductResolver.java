@@ -0,0 +1,98 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.orderResponse.OrderResponse;
+import com.nguyenna.orderservice.dto.product.Product;
+import com.nguyenna.orderservice.entity.Order;
+import com.nguyenna.orderservice.feign.ProductService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Resolves the products of a whole response in one go: ids are deduplicated across every order in it and
+ * fetched with a single ProductService call, and the results are shared by all of them. The number of calls
+ * each response needed is recorded as {@code order.product.calls}.
+ */
+@Component
+public class ProductResolver {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary callsPerResponse;
+
+    @PostConstruct
+    public void init() {
+        callsPerResponse = DistributionSummary.builder("order.product.calls")
+                .description("ProductService calls made to enrich one order response or page")
+                .register(meterRegistry);
+    }
+
+    public Map<Long, Product> resolve(Collection<Long> productIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(productIds);
+        if (distinctIds.isEmpty()) {
+            callsPerResponse.record(0);
+            return Collections.emptyMap();
+        }
+
+        List<Product> productList = productService.getCartProducts(new ArrayList<>(distinctIds)).getBody();
+        callsPerResponse.record(1);
+        assert productList != null;
+
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productList) products.put(product.getId(), product);
+
+        return products;
+    }
+
+    public List<OrderResponse> toOrderResponses(List<Order> orders) {
+        List<Long> productIds = new ArrayList<>();
+        for (Order order : orders) {
+            for (com.nguyenna.orderservice.entity.Product line : order.getProducts()) productIds.add(line.getProductId());
+        }
+        Map<Long, Product> products = resolve(productIds);
+
+        List<OrderResponse> orderResponseList = new ArrayList<>();
+        for (Order order : orders) {
+            List<Product> productList = new ArrayList<>();
+            for (com.nguyenna.orderservice.entity.Product line : order.getProducts()) {
+                Product product = products.get(line.getProductId());
+                if (product == null) continue;
+                // Each line gets its own copy because the same product can appear in several orders with different counts
+                productList.add(Product.builder()
+                        .id(product.getId())
+                        .title(product.getTitle())
+                        .description(product.getDescription())
+                        .price(product.getPrice())
+                        .discount(product.getDiscount())
+                        .itemCount(line.getItemCount())
+                        .images(product.getImages())
+                        .createdAt(product.getCreatedAt())
+                        .updatedAt(product.getUpdatedAt())
+                        .build());
+            }
+
+            orderResponseList.add(OrderResponse.builder()
+                    .id(order.getId())
+                    .totalPrice(order.getTotalPrice())
+                    .discount(order.getDiscount())
+                    .grandTotal(order.getGrandTotal())
+                    .products(productList)
+                    .deliveryStatus(order.getDeliveryStatus())
+                    .shippingDetails(order.getShippingDetails())
+                    .paymentStatus(order.getPaymentStatus())
+                    .createdAt(order.getCreatedAt())
+                    .updatedAt(order.getUpdatedAt())
+                    .build());
+        }
+
+        return orderResponseList;
+    }
+}
@@ -0,0 +1,90 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.entity.DeliveryStatus;
+import com.nguyenna.orderservice.entity.PendingReservationCommit;
+import com.nguyenna.orderservice.feign.InventoryService;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import com.nguyenna.orderservice.repository.PendingReservationCommitRepository;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Commits the reservations of placed orders whose inline commit failed. Only rows older than one retry interval
+ * are picked up, so the attempt made right after the order was written gets to finish first. Committing is
+ * idempotent on the inventory side, which lets several OrderService nodes run this side by side.
+ * <p>
+ * A reservation that inventory already released, typically after it expired, can no longer be committed and the
+ * order's stock may have been sold again. Such an order is put {@link DeliveryStatus#ON_HOLD} so it does not ship
+ * unchecked, and counted in {@code order.reservation.lost} for alerting.
+ */
+@Component
+public class ReservationCommitRetrier {
+
+    @Autowired
+    private PendingReservationCommitRepository pendingReservationCommitRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${order.reservation-commit.retry-ms:10000}")
+    private long retryMs;
+
+    @Value("${order.reservation-commit.batch-size:100}")
+    private int batchSize;
+
+    private Counter lostReservations;
+
+    private final Logger logger = LoggerFactory.getLogger(ReservationCommitRetrier.class);
+
+    @PostConstruct
+    public void init() {
+        lostReservations = Counter.builder("order.reservation.lost")
+                .description("Placed orders put on hold because their reservation could no longer be committed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.reservation-commit.retry-ms:10000}", initialDelayString = "${order.reservation-commit.retry-ms:10000}")
+    public int retry() {
+        int committed = 0;
+        long olderThan = System.currentTimeMillis() - retryMs;
+        for (PendingReservationCommit pending : pendingReservationCommitRepository.findAllByCreatedAtLessThanOrderByCreatedAt(olderThan, PageRequest.of(0, batchSize))) {
+            try {
+                inventoryService.commitReservation(pending.getReservationId());
+                pendingReservationCommitRepository.deleteById(pending.getReservationId());
+                committed++;
+            } catch (FeignException e) {
+                if (e.status() != HttpStatus.BAD_REQUEST.value()) {
+                    logger.warn("Still cannot commit reservation " + pending.getReservationId() + " for order " + pending.getOrderId() + ": " + e.getMessage());
+                    continue;
+                }
+                // Unknown or already released: retrying cannot help any more, and the stock may be gone
+                orderRepository.updateDeliveryStatus(pending.getOrderId(), DeliveryStatus.ON_HOLD, new Date());
+                lostReservations.increment();
+                logger.error("Reservation " + pending.getReservationId() + " for order " + pending.getOrderId() + " can no longer be committed, order put on hold: " + e.getMessage());
+                pendingReservationCommitRepository.deleteById(pending.getReservationId());
+            } catch (Exception e) {
+                logger.warn("Still cannot commit reservation " + pending.getReservationId() + " for order " + pending.getOrderId() + ": " + e.getMessage());
+            }
+        }
+
+        return committed;
+    }
+}
@@ -0,0 +1,55 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.RevokedTokenResponse;
+import com.nguyenna.orderservice.feign.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of the token ids AuthService has revoked on logout. It is refreshed incrementally in the
+ * background, so a logout takes effect here within one refresh interval.
+ */
+@Service
+public class RevokedTokenCache {
+
+    // Re-read a small window before the last seen revocation so late commits on AuthService are not skipped
+    private static final long REFRESH_OVERLAP_MS = 60_000;
+
+    @Autowired
+    private AuthService authService;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private volatile long lastRevokedAt = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(RevokedTokenCache.class);
+
+    public boolean isRevoked(String tokenId) {
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation-refresh-ms:15000}")
+    public void refresh() {
+        try {
+            List<RevokedTokenResponse> revoked = authService.getRevokedTokens(Math.max(0, lastRevokedAt - REFRESH_OVERLAP_MS)).getBody();
+            if (revoked != null) {
+                for (RevokedTokenResponse token : revoked) {
+                    revokedTokens.put(token.getTokenId(), token.getExpiresAt());
+                    lastRevokedAt = Math.max(lastRevokedAt, token.getRevokedAt());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not refresh revoked tokens: " + e.getLocalizedMessage());
+        }
+
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
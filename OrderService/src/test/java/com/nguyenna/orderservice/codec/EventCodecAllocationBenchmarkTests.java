@@ -0,0 +1,70 @@
+package com.nguyenna.orderservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.orderservice.dto.kafka.PayType;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import com.nguyenna.orderservice.entity.PaymentStatusEnum;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how many bytes one payment event allocates on the way out and back in, for a mapper created per
+ * message, the shared mapper, the cached reader/writer pair and the binary codec.
+ */
+class EventCodecAllocationBenchmarkTests {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+    private final PaymentEvent event = PaymentEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .userId(4211)
+            .orderId(1938274)
+            .amount(1249.5)
+            .message("Payment successful")
+            .paymentStatus(PaymentStatusEnum.SUCCESS)
+            .payType(PayType.CARD)
+            .build();
+
+    @Test
+    void allocationPerMessage() throws Exception {
+        JsonEventCodec<PaymentEvent> cachedJson = new JsonEventCodec<>(sharedMapper, PaymentEvent.class);
+        BinaryEventCodec<PaymentEvent> binary = new BinaryEventCodec<>(
+                new SchemaRegistry().register(new PaymentEventSchema()), PaymentEventSchema.SUBJECT, PaymentEvent.class);
+
+        long mapperPerMessage = bytesPerMessage(WARMUP / 10, ITERATIONS / 10, () -> {
+            ObjectMapper objectMapper = new ObjectMapper();
+            return objectMapper.readValue(objectMapper.writeValueAsString(event), PaymentEvent.class);
+        });
+        long sharedMapperBytes = bytesPerMessage(WARMUP, ITERATIONS, () -> sharedMapper.readValue(sharedMapper.writeValueAsString(event), PaymentEvent.class));
+        long cachedJsonBytes = bytesPerMessage(WARMUP, ITERATIONS, () -> cachedJson.decode(cachedJson.encode(event)));
+        long binaryBytes = bytesPerMessage(WARMUP, ITERATIONS, () -> binary.decode(binary.encode(event)));
+
+        System.out.printf("new ObjectMapper per message: %7d bytes/message%n", mapperPerMessage);
+        System.out.printf("shared ObjectMapper:          %7d bytes/message%n", sharedMapperBytes);
+        System.out.printf("cached reader/writer:         %7d bytes/message%n", cachedJsonBytes);
+        System.out.printf("binary codec:                 %7d bytes/message%n", binaryBytes);
+
+        assertTrue(cachedJsonBytes * 10 < mapperPerMessage, cachedJsonBytes + " vs " + mapperPerMessage + " bytes per message");
+        assertTrue(binaryBytes < cachedJsonBytes, binaryBytes + " vs " + cachedJsonBytes + " bytes per message");
+    }
+
+    private long bytesPerMessage(int warmup, int iterations, RoundTrip roundTrip) throws Exception {
+        for (int i = 0; i < warmup; i++) roundTrip.run();
+
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) roundTrip.run();
+
+        return (threadMXBean.getCurrentThreadAllocatedBytes() - before) / iterations;
+    }
+
+    private interface RoundTrip {
+        PaymentEvent run() throws Exception;
+    }
+}
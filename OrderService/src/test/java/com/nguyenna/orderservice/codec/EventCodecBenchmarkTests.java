@@ -0,0 +1,95 @@
+package com.nguyenna.orderservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.orderservice.dto.kafka.OrderEvent;
+import com.nguyenna.orderservice.dto.kafka.PayType;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import com.nguyenna.orderservice.entity.PaymentStatusEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the binary codec with the JSON one on bytes per event and encode/decode time per event, and checks
+ * that both read back what they wrote.
+ */
+class EventCodecBenchmarkTests {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SchemaRegistry schemaRegistry = new SchemaRegistry()
+            .register(new OrderEventSchema())
+            .register(new PaymentEventSchema());
+
+    @Test
+    void orderEvents() {
+        OrderEvent event = OrderEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .userId(4211)
+                .orderId(1938274)
+                .amount(1249.5)
+                .message("An order has been created for user 4211")
+                .payType(PayType.BKASH)
+                .build();
+
+        compare("order-event", event,
+                new JsonEventCodec<>(objectMapper, OrderEvent.class),
+                new BinaryEventCodec<>(schemaRegistry, OrderEventSchema.SUBJECT, OrderEvent.class));
+    }
+
+    @Test
+    void paymentEvents() {
+        PaymentEvent event = PaymentEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .userId(4211)
+                .orderId(1938274)
+                .amount(1249.5)
+                .message("Payment successful")
+                .paymentStatus(PaymentStatusEnum.SUCCESS)
+                .payType(PayType.CARD)
+                .build();
+
+        compare("payment-event", event,
+                new JsonEventCodec<>(objectMapper, PaymentEvent.class),
+                new BinaryEventCodec<>(schemaRegistry, PaymentEventSchema.SUBJECT, PaymentEvent.class));
+    }
+
+    private <T> void compare(String name, T event, EventCodec<T> json, EventCodec<T> binary) {
+        byte[] jsonBytes = json.encode(event);
+        byte[] binaryBytes = binary.encode(event);
+        assertEquals(event, json.decode(jsonBytes));
+        assertEquals(event, binary.decode(binaryBytes));
+
+        measure(json, event, WARMUP);
+        measure(binary, event, WARMUP);
+        double[] jsonNs = measure(json, event, ITERATIONS);
+        double[] binaryNs = measure(binary, event, ITERATIONS);
+
+        System.out.printf("%s json:   %3d bytes, %6.0f ns encode, %6.0f ns decode%n", name, jsonBytes.length, jsonNs[0], jsonNs[1]);
+        System.out.printf("%s binary: %3d bytes, %6.0f ns encode, %6.0f ns decode%n", name, binaryBytes.length, binaryNs[0], binaryNs[1]);
+
+        assertTrue(binaryBytes.length < jsonBytes.length, binaryBytes.length + " binary bytes vs " + jsonBytes.length + " JSON bytes");
+    }
+
+    private static <T> double[] measure(EventCodec<T> codec, T event, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += codec.encode(event).length;
+        double encodeNs = (System.nanoTime() - start) / (double) iterations;
+
+        byte[] data = codec.encode(event);
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += codec.decode(data).hashCode();
+        double decodeNs = (System.nanoTime() - start) / (double) iterations;
+
+        // Keeps the loops from being optimised away
+        if (sink == 42) System.out.print("");
+
+        return new double[]{encodeNs, decodeNs};
+    }
+}
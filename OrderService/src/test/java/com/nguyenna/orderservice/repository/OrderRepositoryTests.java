@@ -0,0 +1,63 @@
+package com.nguyenna.orderservice.repository;
+
+import com.nguyenna.orderservice.dto.orderResponse.OrderLine;
+import com.nguyenna.orderservice.dto.orderResponse.OrderSummary;
+import com.nguyenna.orderservice.entity.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "order.outbox.relay-ms = 3600000"
+})
+class OrderRepositoryTests {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void historyIsPagedNewestFirstByKeyset() {
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) ids[i] = orderRepository.save(newOrder(1, "Product " + i)).getId();
+        orderRepository.save(newOrder(2, "Someone else's"));
+
+        List<OrderSummary> firstPage = orderRepository.findSummariesBefore(1, Long.MAX_VALUE, PageRequest.of(0, 2));
+        assertEquals(List.of(ids[4], ids[3]), firstPage.stream().map(OrderSummary::getId).toList());
+        assertEquals(PaymentStatusEnum.PENDING, firstPage.get(0).getPaymentStatus());
+
+        List<OrderSummary> lastPage = orderRepository.findSummariesBefore(1, ids[1], PageRequest.of(0, 2));
+        assertEquals(List.of(ids[0]), lastPage.stream().map(OrderSummary::getId).toList());
+    }
+
+    @Test
+    void linesCarryTheProductSnapshotTakenAtCheckout() {
+        Order order = orderRepository.save(newOrder(1, "Keyboard"));
+
+        List<OrderLine> lines = orderRepository.findLines(List.of(order.getId()));
+        assertEquals(1, lines.size());
+        assertEquals(order.getId(), lines.get(0).orderId());
+        assertEquals("Keyboard", lines.get(0).title());
+        assertEquals(25.0, lines.get(0).price());
+        assertEquals(10, lines.get(0).discount());
+    }
+
+    private Order newOrder(long userId, String title) {
+        return Order.builder()
+                .userId(userId)
+                .totalPrice(50)
+                .grandTotal(45)
+                .products(List.of(Product.builder().productId(7).itemCount(2).title(title).price(25.0).discount(10).build()))
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .paymentStatus(PaymentStatus.builder().status(PaymentStatusEnum.PENDING).amount(45).build())
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.CheckoutStage;
+import com.nguyenna.orderservice.dto.CheckoutStatus;
+import com.nguyenna.orderservice.dto.ShippingDetailsRequest;
+import com.nguyenna.orderservice.dto.product.Product;
+import com.nguyenna.orderservice.entity.Order;
+import com.nguyenna.orderservice.feign.CartService;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CheckoutPipelineTests {
+
+    private final CartService cartService = mock(CartService.class);
+    private final OrderPlacement orderPlacement = mock(OrderPlacement.class);
+    private CheckoutPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = newPipeline(2, 16);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void checkoutIsAcceptedAndPlacedInTheBackground() throws InterruptedException {
+        Order order = Order.builder().userId(1).build();
+        Order saved = Order.builder().id(42).userId(1).build();
+        when(cartService.getCartItems(1)).thenReturn(ResponseEntity.ok(List.of(Product.builder().id(7).itemCount(2).price(10).build())));
+        when(orderPlacement.buildOrder(anyLong(), any(), any())).thenReturn(order);
+        when(orderPlacement.reserve(order)).thenReturn("reservation");
+        when(orderPlacement.persist(order, "reservation")).thenReturn(saved);
+
+        CheckoutStatus accepted = pipeline.submit(1, new ShippingDetailsRequest());
+        assertEquals(CheckoutStage.ACCEPTED, accepted.stage());
+
+        CheckoutStatus status = awaitFinished(accepted.checkoutId(), 1);
+        assertEquals(CheckoutStage.PLACED, status.stage());
+        assertEquals(42, status.orderId());
+        verify(orderPlacement).complete(saved, "reservation");
+        assertNull(pipeline.getStatus(accepted.checkoutId(), 2), "another user must not see the checkout");
+    }
+
+    @Test
+    void outOfStockFailsWithoutPersisting() throws InterruptedException {
+        Order order = Order.builder().userId(1).build();
+        when(cartService.getCartItems(1)).thenReturn(ResponseEntity.ok(List.of(Product.builder().id(7).itemCount(2).build())));
+        when(orderPlacement.buildOrder(anyLong(), any(), any())).thenReturn(order);
+        when(orderPlacement.reserve(order)).thenThrow(new FeignException.BadRequest("out of stock",
+                Request.create(Request.HttpMethod.POST, "/reserve", Collections.emptyMap(), null, StandardCharsets.UTF_8, null), null, null));
+
+        CheckoutStatus status = awaitFinished(pipeline.submit(1, new ShippingDetailsRequest()).checkoutId(), 1);
+        assertEquals(CheckoutStage.FAILED, status.stage());
+        assertEquals("Some products in your cart are out of stock", status.message());
+        verify(orderPlacement, never()).persist(any(), any());
+    }
+
+    @Test
+    void unavailableInventoryFailsWithItsMessage() throws InterruptedException {
+        Order order = Order.builder().userId(1).build();
+        when(cartService.getCartItems(1)).thenReturn(ResponseEntity.ok(List.of(Product.builder().id(7).itemCount(2).build())));
+        when(orderPlacement.buildOrder(anyLong(), any(), any())).thenReturn(order);
+        when(orderPlacement.reserve(order)).thenThrow(new RuntimeException("SNAE_Inventory service is not available"));
+
+        CheckoutStatus status = awaitFinished(pipeline.submit(1, new ShippingDetailsRequest()).checkoutId(), 1);
+        assertEquals(CheckoutStage.FAILED, status.stage());
+        assertEquals("Inventory service is not available", status.message());
+        verify(orderPlacement, never()).persist(any(), any());
+    }
+
+    @Test
+    void failedPersistenceReleasesTheReservation() throws InterruptedException {
+        Order order = Order.builder().userId(1).build();
+        when(cartService.getCartItems(1)).thenReturn(ResponseEntity.ok(List.of(Product.builder().id(7).itemCount(2).build())));
+        when(orderPlacement.buildOrder(anyLong(), any(), any())).thenReturn(order);
+        when(orderPlacement.reserve(order)).thenReturn("reservation");
+        when(orderPlacement.persist(order, "reservation")).thenThrow(new IllegalStateException("database down"));
+
+        CheckoutStatus status = awaitFinished(pipeline.submit(1, new ShippingDetailsRequest()).checkoutId(), 1);
+        assertEquals(CheckoutStage.FAILED, status.stage());
+        verify(orderPlacement).releaseReservation("reservation");
+    }
+
+    @Test
+    void saturatedPipelineRejectsNewCheckouts() throws InterruptedException {
+        pipeline.shutdown();
+        pipeline = newPipeline(1, 1);
+        CountDownLatch cartCallStarted = new CountDownLatch(1);
+        CountDownLatch releaseCart = new CountDownLatch(1);
+        when(cartService.getCartItems(anyLong())).thenAnswer(invocation -> {
+            cartCallStarted.countDown();
+            releaseCart.await();
+            return ResponseEntity.ok(List.of());
+        });
+
+        pipeline.submit(1, new ShippingDetailsRequest());
+        assertTrue(cartCallStarted.await(5, TimeUnit.SECONDS));
+        pipeline.submit(2, new ShippingDetailsRequest());
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(3, new ShippingDetailsRequest()));
+        releaseCart.countDown();
+    }
+
+    private CheckoutPipeline newPipeline(int workers, int queueCapacity) {
+        CheckoutPipeline checkoutPipeline = new CheckoutPipeline();
+        ReflectionTestUtils.setField(checkoutPipeline, "cartService", cartService);
+        ReflectionTestUtils.setField(checkoutPipeline, "orderPlacement", orderPlacement);
+        ReflectionTestUtils.setField(checkoutPipeline, "workers", workers);
+        ReflectionTestUtils.setField(checkoutPipeline, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(checkoutPipeline, "statusTtlMs", 600000L);
+        ReflectionTestUtils.setField(checkoutPipeline, "sseTimeoutMs", 60000L);
+        checkoutPipeline.init();
+
+        return checkoutPipeline;
+    }
+
+    private CheckoutStatus awaitFinished(String checkoutId, long userId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        CheckoutStatus status = pipeline.getStatus(checkoutId, userId);
+        while (!status.stage().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = pipeline.getStatus(checkoutId, userId);
+        }
+
+        return status;
+    }
+}
@@ -0,0 +1,104 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.entity.*;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Persists order aggregates the way {@link OrderServiceImpl#createOrder} does and reports how many JDBC
+ * statements each order costs and how many orders per second go through, for carts of 1, 10 and 100 lines.
+ * With pooled sequence ids and insert batching the statement count should stay flat as the cart grows.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size = 50",
+        "spring.jpa.properties.hibernate.order_inserts = true",
+        "spring.jpa.properties.hibernate.generate_statistics = true",
+        "order.outbox.relay-ms = 3600000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderPersistenceBenchmarkTests {
+
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void statementsPerOrderStayFlatAsTheCartGrows() {
+        long single = benchmark(1);
+        long ten = benchmark(10);
+        long hundred = benchmark(100);
+
+        // Order, shipping, payment and lines go out as a handful of batches instead of one insert per row
+        assertTrue(single <= 6, "statements per 1-line order: " + single);
+        assertTrue(ten <= 6, "statements per 10-line order: " + ten);
+        assertTrue(hundred <= 10, "statements per 100-line order: " + hundred);
+        assertEquals(ORDERS * 3L, orderRepository.count());
+    }
+
+    private long benchmark(int lines) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = newOrder(lines);
+            transactionTemplate.executeWithoutResult(status -> orderRepository.save(order));
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long statementsPerOrder = Math.round((double) statistics.getPrepareStatementCount() / ORDERS);
+        System.out.printf("%3d line(s): %d statements/order, %.0f orders/s%n", lines, statementsPerOrder, ORDERS / seconds);
+
+        return statementsPerOrder;
+    }
+
+    private Order newOrder(int lines) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            products.add(Product.builder().productId(i + 1).itemCount(1).build());
+        }
+
+        return Order.builder()
+                .userId(1)
+                .totalPrice(lines * 10.0)
+                .grandTotal(lines * 10.0)
+                .products(products)
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .shippingDetails(ShippingDetails.builder().name("name").phone("phone").email("email").address("address").build())
+                .paymentStatus(PaymentStatus.builder().status(PaymentStatusEnum.PENDING).amount(lines * 10.0).build())
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build();
+    }
+}
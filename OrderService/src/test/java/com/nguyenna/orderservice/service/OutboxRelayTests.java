@@ -0,0 +1,109 @@
+package com.nguyenna.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.orderservice.codec.EventCodec;
+import com.nguyenna.orderservice.codec.JsonEventCodec;
+import com.nguyenna.orderservice.dto.kafka.OrderEvent;
+import com.nguyenna.orderservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        // The test relays by hand; keep the scheduled relay from racing it
+        "order.outbox.relay-ms = 3600000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OutboxService.class, OutboxRelay.class, SimpleMeterRegistry.class})
+class OutboxRelayTests {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final EventCodec<OrderEvent> orderEventCodec = new JsonEventCodec<>(new ObjectMapper(), OrderEvent.class);
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void committedEventsAreRelayedAndRemoved() {
+        enqueue(1);
+        enqueue(2);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        assertEquals(2, outboxRelay.relay());
+        assertEquals(0, outboxEventRepository.count());
+        verify(kafkaTemplate).send(eq(OrderServiceImpl.ORDER_EVENT_TOPIC), eq("1"), argThat(payload -> orderEventCodec.decode(payload).getOrderId() == 1));
+        verify(kafkaTemplate).send(eq(OrderServiceImpl.ORDER_EVENT_TOPIC), eq("2"), argThat(payload -> orderEventCodec.decode(payload).getOrderId() == 2));
+        assertEquals(0, meterRegistry.get("order.outbox.pending").gauge().value());
+        assertEquals(2, meterRegistry.get("order.outbox.delivery").timer().count());
+    }
+
+    @Test
+    void brokerOutageLeavesEventsQueuedAndShowsLag() {
+        enqueue(3);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertEquals(0, outboxRelay.relay());
+        assertEquals(1, outboxEventRepository.count());
+        assertEquals(1, meterRegistry.get("order.outbox.pending").gauge().value());
+        assertTrue(meterRegistry.get("order.outbox.lag").gauge().value() >= 0);
+    }
+
+    @Test
+    void rolledBackOrdersLeaveNoEvent() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxService.enqueue(OrderServiceImpl.ORDER_EVENT_TOPIC, "4", orderEventCodec.encode(OrderEvent.builder().orderId(4).build()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxEventRepository.count());
+        assertThrows(Exception.class, () -> outboxService.enqueue(OrderServiceImpl.ORDER_EVENT_TOPIC, "5", orderEventCodec.encode(OrderEvent.builder().orderId(5).build())));
+    }
+
+    private void enqueue(long orderId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxService.enqueue(OrderServiceImpl.ORDER_EVENT_TOPIC, String.valueOf(orderId), orderEventCodec.encode(OrderEvent.builder().orderId(orderId).build())));
+    }
+}
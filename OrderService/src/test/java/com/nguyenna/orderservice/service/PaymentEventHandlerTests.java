@@ -0,0 +1,99 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import com.nguyenna.orderservice.entity.*;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import com.nguyenna.orderservice.repository.ProcessedEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "order.outbox.relay-ms = 3600000",
+        "order.dedup.cleanup-ms = 3600000"
+})
+@Import({PaymentEventHandler.class, ProcessedEventStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentEventHandlerTests {
+
+    @Autowired
+    private PaymentEventHandler paymentEventHandler;
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        processedEventRepository.deleteAll();
+    }
+
+    @Test
+    void replayedEventDoesNotOverwriteALaterStatus() {
+        long orderId = orderRepository.save(newOrder()).getId();
+        PaymentEvent pending = event("e1", orderId, PaymentStatusEnum.PENDING);
+        PaymentEvent success = event("e2", orderId, PaymentStatusEnum.SUCCESS);
+
+        paymentEventHandler.onEvents(List.of(pending));
+        paymentEventHandler.onEvents(List.of(success));
+        paymentEventHandler.onEvents(List.of(pending, pending));
+
+        assertEquals(PaymentStatusEnum.SUCCESS, statusOf(orderId));
+        assertEquals(2, processedEventRepository.count());
+    }
+
+    @Test
+    void replaysAreStillDroppedAfterTheCacheIsLost() {
+        long orderId = orderRepository.save(newOrder()).getId();
+        paymentEventHandler.onEvents(List.of(event("e1", orderId, PaymentStatusEnum.FAILED)));
+        paymentEventHandler.onEvents(List.of(event("e2", orderId, PaymentStatusEnum.SUCCESS)));
+
+        // Same as a restart: only the table remembers what was applied
+        processedEventStore.init();
+        paymentEventHandler.onEvents(List.of(event("e1", orderId, PaymentStatusEnum.FAILED)));
+
+        assertEquals(PaymentStatusEnum.SUCCESS, statusOf(orderId));
+    }
+
+    private PaymentStatusEnum statusOf(long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getPaymentStatus().getStatus();
+    }
+
+    private PaymentEvent event(String eventId, long orderId, PaymentStatusEnum status) {
+        return PaymentEvent.builder()
+                .eventId(eventId)
+                .orderId(orderId)
+                .paymentStatus(status)
+                .message(status.name())
+                .build();
+    }
+
+    private Order newOrder() {
+        return Order.builder()
+                .userId(1)
+                .totalPrice(10)
+                .grandTotal(10)
+                .products(List.of(Product.builder().productId(1).itemCount(1).build()))
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .paymentStatus(PaymentStatus.builder().status(PaymentStatusEnum.PENDING).amount(10).build())
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build();
+    }
+}
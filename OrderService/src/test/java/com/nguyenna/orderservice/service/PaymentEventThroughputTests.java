@@ -0,0 +1,108 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.codec.BinaryEventCodec;
+import com.nguyenna.orderservice.codec.PaymentEventSchema;
+import com.nguyenna.orderservice.codec.SchemaRegistry;
+import com.nguyenna.orderservice.config.ConsumerConfig;
+import com.nguyenna.orderservice.config.EventCodecConfig;
+import com.nguyenna.orderservice.dto.kafka.PaymentEvent;
+import com.nguyenna.orderservice.entity.*;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pushes payment events through an embedded broker into the batch listener and reports how many events per
+ * second end up applied to the database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size = 50",
+        "spring.kafka.consumer.bootstrap-servers = ${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.bootstrap-servers = ${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.properties.enable.idempotence = false",
+        "spring.kafka.producer.acks = 1",
+        "order.payment-events.partitions = 3",
+        "order.outbox.relay-ms = 3600000"
+})
+@EmbeddedKafka(partitions = 3, topics = ConsumerConfig.PAYMENT_EVENT_TOPIC)
+@ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({ConsumerConfig.class, EventCodecConfig.class, PaymentEventHandler.class, ProcessedEventStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentEventThroughputTests {
+
+    private static final int EVENTS = 5000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private SchemaRegistry schemaRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void paymentEventsAreAppliedInBatches() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) orders.add(newOrder());
+        List<Long> orderIds = orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+
+        BinaryEventCodec<PaymentEvent> codec = new BinaryEventCodec<>(schemaRegistry, PaymentEventSchema.SUBJECT, PaymentEvent.class);
+        long start = System.nanoTime();
+        for (long orderId : orderIds) {
+            PaymentEvent paymentEvent = PaymentEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .orderId(orderId)
+                    .paymentStatus(PaymentStatusEnum.SUCCESS)
+                    .message("Payment successful")
+                    .build();
+            kafkaTemplate.send(ConsumerConfig.PAYMENT_EVENT_TOPIC, String.valueOf(orderId), codec.encode(paymentEvent));
+        }
+        kafkaTemplate.flush();
+
+        long applied = 0;
+        long deadline = System.currentTimeMillis() + 60000;
+        while (applied < EVENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            applied = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_status WHERE status = 'SUCCESS'", Long.class);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Applied %d payment events in %.2f s: %.0f events/s%n", applied, seconds, applied / seconds);
+
+        assertEquals(EVENTS, applied);
+    }
+
+    private Order newOrder() {
+        return Order.builder()
+                .userId(1)
+                .totalPrice(10)
+                .grandTotal(10)
+                .products(List.of(Product.builder().productId(1).itemCount(1).build()))
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .paymentStatus(PaymentStatus.builder().status(PaymentStatusEnum.PENDING).amount(10).build())
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.orderResponse.OrderResponse;
+import com.nguyenna.orderservice.dto.product.Product;
+import com.nguyenna.orderservice.entity.Order;
+import com.nguyenna.orderservice.feign.ProductService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductResolverTests {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductResolver productResolver;
+
+    @BeforeEach
+    void setUp() {
+        productResolver = new ProductResolver();
+        ReflectionTestUtils.setField(productResolver, "productService", productService);
+        ReflectionTestUtils.setField(productResolver, "meterRegistry", meterRegistry);
+        productResolver.init();
+    }
+
+    @Test
+    void productsSharedAcrossOrdersAreFetchedOnce() {
+        when(productService.getCartProducts(anyList())).thenReturn(ResponseEntity.ok(List.of(
+                Product.builder().id(1).title("Mouse").price(10).build(),
+                Product.builder().id(2).title("Keyboard").price(30).build()
+        )));
+
+        List<OrderResponse> responses = productResolver.toOrderResponses(List.of(
+                order(100, line(1, 1), line(2, 1)),
+                order(101, line(1, 3)),
+                order(102, line(2, 2), line(1, 5))
+        ));
+
+        verify(productService, times(1)).getCartProducts(List.of(1L, 2L));
+        assertEquals(3, responses.size());
+        assertEquals(3, responses.get(1).getProducts().get(0).getItemCount());
+        assertEquals(5, responses.get(2).getProducts().get(1).getItemCount());
+        assertEquals(1, responses.get(0).getProducts().get(0).getItemCount(), "lines must not share product instances");
+        assertEquals("Keyboard", responses.get(2).getProducts().get(0).getTitle());
+
+        DistributionSummary calls = meterRegistry.get("order.product.calls").summary();
+        assertEquals(1, calls.count());
+        assertEquals(1, calls.totalAmount());
+    }
+
+    @Test
+    void nothingToResolveMakesNoCall() {
+        assertEquals(0, productResolver.resolve(List.of()).size());
+
+        verifyNoInteractions(productService);
+        assertEquals(0, meterRegistry.get("order.product.calls").summary().totalAmount());
+    }
+
+    private Order order(long id, com.nguyenna.orderservice.entity.Product... lines) {
+        return Order.builder().id(id).products(List.of(lines)).build();
+    }
+
+    private com.nguyenna.orderservice.entity.Product line(long productId, int itemCount) {
+        return com.nguyenna.orderservice.entity.Product.builder().productId(productId).itemCount(itemCount).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.nguyenna.orderservice.service;
+
+import com.nguyenna.orderservice.dto.ReservationResponse;
+import com.nguyenna.orderservice.entity.DeliveryStatus;
+import com.nguyenna.orderservice.entity.Order;
+import com.nguyenna.orderservice.entity.PendingReservationCommit;
+import com.nguyenna.orderservice.feign.InventoryService;
+import com.nguyenna.orderservice.repository.OrderRepository;
+import com.nguyenna.orderservice.repository.PendingReservationCommitRepository;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        // The test retries by hand; keep the scheduled run from racing it
+        "order.reservation-commit.retry-ms = 3600000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReservationCommitRetrier.class, SimpleMeterRegistry.class})
+class ReservationCommitRetrierTests {
+
+    @Autowired
+    private ReservationCommitRetrier reservationCommitRetrier;
+
+    @Autowired
+    private PendingReservationCommitRepository pendingReservationCommitRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @AfterEach
+    void cleanUp() {
+        pendingReservationCommitRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void failedCommitsAreRetriedUntilInventoryAcceptsThem() {
+        long downOrder = order();
+        long releasedOrder = order();
+        pending("down", downOrder, 0);
+        pending("released", releasedOrder, 0);
+        // Too young: the inline commit right after the order was written may still be running
+        pending("fresh", order(), System.currentTimeMillis());
+        when(inventoryService.commitReservation("down"))
+                .thenThrow(new RuntimeException("SNAE_Inventory service is not available"))
+                .thenReturn(ResponseEntity.ok(new ReservationResponse(true, "Reservation committed successfully", "down")));
+        when(inventoryService.commitReservation("released")).thenThrow(new FeignException.BadRequest("Reservation has already been released",
+                Request.create(Request.HttpMethod.POST, "/api/inventory/reserve/released/commit", Map.of(), null, StandardCharsets.UTF_8, null), null, null));
+
+        assertEquals(0, reservationCommitRetrier.retry());
+        // The unavailable one stays for the next run; the released one can never succeed, so its order is held
+        assertTrue(pendingReservationCommitRepository.existsById("down"));
+        assertTrue(pendingReservationCommitRepository.existsById("fresh"));
+        assertEquals(2, pendingReservationCommitRepository.count());
+        assertEquals(DeliveryStatus.ON_HOLD, orderRepository.findById(releasedOrder).get().getDeliveryStatus());
+        assertEquals(1, meterRegistry.counter("order.reservation.lost").count());
+
+        assertEquals(1, reservationCommitRetrier.retry());
+        assertEquals(1, pendingReservationCommitRepository.count());
+        assertTrue(pendingReservationCommitRepository.existsById("fresh"));
+        assertEquals(DeliveryStatus.PENDING, orderRepository.findById(downOrder).get().getDeliveryStatus());
+    }
+
+    private long order() {
+        return orderRepository.save(Order.builder()
+                .userId(1)
+                .products(List.of())
+                .deliveryStatus(DeliveryStatus.PENDING)
+                .createdAt(new Date())
+                .updatedAt(new Date())
+                .build()).getId();
+    }
+
+    private void pending(String reservationId, long orderId, long createdAt) {
+        pendingReservationCommitRepository.save(PendingReservationCommit.builder()
+                .reservationId(reservationId)
+                .orderId(orderId)
+                .createdAt(createdAt)
+                .build());
+    }
+}
@@ -0,0 +1,72 @@
+package com.nguyenna.paymentservice.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Reads the fields written by {@link BinaryWriter}. Truncated or corrupt input fails with
+ * {@link IllegalArgumentException} rather than an index error.
+ */
+public class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    public BinaryReader(byte[] data) {
+        this.data = data;
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = readUnsignedVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) bits = (bits << 8) | (data[position++] & 0xFF);
+
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        long length = readUnsignedVarLong();
+        if (length == 0) return null;
+        if (length - 1 > data.length - position) throw new IllegalArgumentException("String of " + (length - 1) + " bytes overruns the event");
+
+        String value = new String(data, position, (int) (length - 1), StandardCharsets.UTF_8);
+        position += (int) (length - 1);
+
+        return value;
+    }
+
+    /**
+     * Returns the symbol name, or null; the caller maps it onto its own enum.
+     */
+    public String readSymbol(List<String> symbols) {
+        long index = readUnsignedVarLong();
+        if (index == 0) return null;
+        if (index > symbols.size()) throw new IllegalArgumentException("Symbol " + (index - 1) + " is not one of " + symbols);
+
+        return symbols.get((int) (index - 1));
+    }
+
+    private long readUnsignedVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint is longer than 10 bytes");
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) throw new IllegalArgumentException("Event is truncated at byte " + position);
+    }
+}
@@ -0,0 +1,11 @@
+package com.nguyenna.paymentservice.codec;
+
+/**
+ * Turns a Kafka event into bytes and back. Implementations throw {@link IllegalArgumentException} for payloads
+ * they cannot read.
+ */
+public interface EventCodec<T> {
+    byte[] encode(T event);
+
+    T decode(byte[] data);
+}
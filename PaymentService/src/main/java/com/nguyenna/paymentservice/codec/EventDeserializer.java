@@ -0,0 +1,31 @@
+package com.nguyenna.paymentservice.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Typed Kafka deserializer that reads both wire formats, picking the binary codec when the payload starts with
+ * {@link BinaryEventCodec#MAGIC} and JSON otherwise. A consumer therefore keeps working whichever codec the
+ * producer is configured with.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+    private final EventCodec<T> binaryCodec;
+    private final EventCodec<T> jsonCodec;
+
+    public EventDeserializer(EventCodec<T> binaryCodec, EventCodec<T> jsonCodec) {
+        this.binaryCodec = binaryCodec;
+        this.jsonCodec = jsonCodec;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+
+        try {
+            return BinaryEventCodec.isBinary(data) ? binaryCodec.decode(data) : jsonCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Malformed event on " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
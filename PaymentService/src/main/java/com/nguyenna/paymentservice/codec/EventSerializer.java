@@ -0,0 +1,27 @@
+package com.nguyenna.paymentservice.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Typed Kafka serializer that writes events with the configured {@link EventCodec}.
+ */
+public class EventSerializer<T> implements Serializer<T> {
+
+    private final EventCodec<T> codec;
+
+    public EventSerializer(EventCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) return null;
+
+        try {
+            return codec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot serialize event for " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
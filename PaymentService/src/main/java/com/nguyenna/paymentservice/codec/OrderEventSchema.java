@@ -0,0 +1,56 @@
+package com.nguyenna.paymentservice.codec;
+
+import com.nguyenna.paymentservice.dto.OrderEvent;
+import com.nguyenna.paymentservice.dto.PayType;
+
+import java.util.List;
+
+/**
+ * {@code order-event} v1. OrderService registers an identical copy; the id, field order and symbol lists are
+ * the contract between the two.
+ */
+public class OrderEventSchema implements EventSchema<OrderEvent> {
+
+    public static final String SUBJECT = "order-event";
+
+    // Symbols may only be appended
+    private static final List<String> PAY_TYPES = List.of("BKASH", "ROCKET", "NAGAD", "CARD");
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public String subject() {
+        return SUBJECT;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(OrderEvent event, BinaryWriter writer) {
+        writer.writeString(event.getEventId());
+        writer.writeVarLong(event.getUserId());
+        writer.writeVarLong(event.getOrderId());
+        writer.writeDouble(event.getAmount());
+        writer.writeString(event.getMessage());
+        writer.writeSymbol(event.getPayType(), PAY_TYPES);
+    }
+
+    @Override
+    public OrderEvent read(BinaryReader reader) {
+        OrderEvent.OrderEventBuilder event = OrderEvent.builder()
+                .eventId(reader.readString())
+                .userId(reader.readVarLong())
+                .orderId(reader.readVarLong())
+                .amount(reader.readDouble())
+                .message(reader.readString());
+        String payType = reader.readSymbol(PAY_TYPES);
+
+        return event.payType(payType == null ? null : PayType.valueOf(payType)).build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.nguyenna.paymentservice.codec;
+
+import com.nguyenna.paymentservice.dto.PayType;
+import com.nguyenna.paymentservice.dto.PaymentEvent;
+import com.nguyenna.paymentservice.dto.PaymentStatus;
+
+import java.util.List;
+
+/**
+ * {@code payment-event} v1. OrderService registers an identical copy; the id, field order and symbol lists are
+ * the contract between the two. The statuses are listed by name because the services declare them in a
+ * different order.
+ */
+public class PaymentEventSchema implements EventSchema<PaymentEvent> {
+
+    public static final String SUBJECT = "payment-event";
+
+    // Symbols may only be appended
+    private static final List<String> PAYMENT_STATUSES = List.of("SUCCESS", "PENDING", "CANCELED", "FAILED");
+    private static final List<String> PAY_TYPES = List.of("BKASH", "ROCKET", "NAGAD", "CARD");
+
+    @Override
+    public int id() {
+        return 2;
+    }
+
+    @Override
+    public String subject() {
+        return SUBJECT;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(PaymentEvent event, BinaryWriter writer) {
+        writer.writeString(event.getEventId());
+        writer.writeVarLong(event.getUserId());
+        writer.writeVarLong(event.getOrderId());
+        writer.writeDouble(event.getAmount());
+        writer.writeString(event.getMessage());
+        writer.writeSymbol(event.getPaymentStatus(), PAYMENT_STATUSES);
+        writer.writeSymbol(event.getPayType(), PAY_TYPES);
+    }
+
+    @Override
+    public PaymentEvent read(BinaryReader reader) {
+        PaymentEvent.PaymentEventBuilder event = PaymentEvent.builder()
+                .eventId(reader.readString())
+                .userId(reader.readVarLong())
+                .orderId(reader.readVarLong())
+                .amount(reader.readDouble())
+                .message(reader.readString());
+        String paymentStatus = reader.readSymbol(PAYMENT_STATUSES);
+        String payType = reader.readSymbol(PAY_TYPES);
+
+        return event.paymentStatus(paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus))
+                .payType(payType == null ? null : PayType.valueOf(payType))
+                .build();
+    }
+}
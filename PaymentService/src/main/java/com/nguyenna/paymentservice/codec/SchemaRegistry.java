@@ -0,0 +1,39 @@
+package com.nguyenna.paymentservice.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for a schema registry. Every service registers the same schemas under the same fixed ids, so a
+ * message only carries the id and the reader looks the layout up here instead of over the network. Writers
+ * always use the latest version of a subject; readers accept any registered version.
+ */
+public class SchemaRegistry {
+
+    private final Map<Integer, EventSchema<?>> schemasById = new HashMap<>();
+    private final Map<String, EventSchema<?>> latestBySubject = new HashMap<>();
+
+    public SchemaRegistry register(EventSchema<?> schema) {
+        EventSchema<?> existing = schemasById.putIfAbsent(schema.id(), schema);
+        if (existing != null && existing != schema) {
+            throw new IllegalStateException("Schema id " + schema.id() + " is already used by " + existing.subject() + " v" + existing.version());
+        }
+        latestBySubject.merge(schema.subject(), schema, (current, added) -> added.version() > current.version() ? added : current);
+
+        return this;
+    }
+
+    public EventSchema<?> byId(int id) {
+        EventSchema<?> schema = schemasById.get(id);
+        if (schema == null) throw new IllegalArgumentException("Unknown schema id " + id);
+
+        return schema;
+    }
+
+    public EventSchema<?> latest(String subject) {
+        EventSchema<?> schema = latestBySubject.get(subject);
+        if (schema == null) throw new IllegalArgumentException("No schema registered for " + subject);
+
+        return schema;
+    }
+}
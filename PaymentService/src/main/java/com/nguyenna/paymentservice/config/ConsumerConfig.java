@@ -1,10 +1,23 @@
 package com.nguyenna.paymentservice.config;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nguyenna.paymentservice.codec.EventDeserializer;
+import com.nguyenna.paymentservice.dto.OrderEvent;
 import com.nguyenna.paymentservice.service.OnMessageReceived;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.List;
 
 @Configuration
 public class ConsumerConfig {
@@ -12,8 +25,36 @@ public class ConsumerConfig {
     @Autowired
     private OnMessageReceived onMessageReceivedListener;
 
-    @KafkaListener(topics = "order-event", groupId = "payment-group")
-    private void onKafkaEventReceived(String event) throws JsonProcessingException {
-        onMessageReceivedListener.onEvent(event);
+    // Static because the listener below, in this same class, needs the factory while it is being created
+    @Bean
+    public static ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderEventContainerFactory(
+            KafkaProperties kafkaProperties,
+            EventDeserializer<OrderEvent> orderEventDeserializer,
+            @Value("${payment.processing.retry-interval-ms:1000}") long retryIntervalMs,
+            @Value("${payment.processing.retry-max-interval-ms:30000}") long retryMaxIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        // A payload that cannot be decoded reaches the listener as null instead of stalling the partition
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(kafkaProperties.buildConsumerProperties(),
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(orderEventDeserializer)));
+        factory.setBatchListener(true);
+        // Offsets are committed once every payment of the poll has finished
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // A failed batch is redelivered as a whole, with growing pauses and no attempt limit: skipping it would commit
+        // offsets for orders that were never charged. ProcessedPaymentStore keeps the retries from charging twice.
+        ExponentialBackOff backOff = new ExponentialBackOff(retryIntervalMs, 2);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+
+        return factory;
+    }
+
+    @KafkaListener(
+            topics = "order-event",
+            groupId = "payment-group",
+            containerFactory = "orderEventContainerFactory",
+            properties = "max.poll.records=${payment.processing.max-poll-records:500}"
+    )
+    private void onKafkaEventsReceived(List<OrderEvent> events) throws InterruptedException {
+        onMessageReceivedListener.onEvents(events);
     }
 }
@@ -0,0 +1,47 @@
+package com.nguyenna.paymentservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.paymentservice.codec.*;
+import com.nguyenna.paymentservice.dto.OrderEvent;
+import com.nguyenna.paymentservice.dto.PaymentEvent;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+@Configuration
+public class EventCodecConfig {
+
+    @Bean
+    public SchemaRegistry schemaRegistry() {
+        return new SchemaRegistry()
+                .register(new OrderEventSchema())
+                .register(new PaymentEventSchema());
+    }
+
+    // "json" until every consumer of payment-event reads the binary format, then "binary"
+    @Bean
+    public EventCodec<PaymentEvent> paymentEventCodec(SchemaRegistry schemaRegistry, ObjectMapper objectMapper,
+                                                      @Value("${payment.events.codec:json}") String codec) {
+        return codec.equals("binary")
+                ? new BinaryEventCodec<>(schemaRegistry, PaymentEventSchema.SUBJECT, PaymentEvent.class)
+                : new JsonEventCodec<>(objectMapper, PaymentEvent.class);
+    }
+
+    @Bean
+    public EventDeserializer<OrderEvent> orderEventDeserializer(SchemaRegistry schemaRegistry, ObjectMapper objectMapper) {
+        return new EventDeserializer<>(
+                new BinaryEventCodec<>(schemaRegistry, OrderEventSchema.SUBJECT, OrderEvent.class),
+                new JsonEventCodec<>(objectMapper, OrderEvent.class)
+        );
+    }
+
+    @Bean
+    public KafkaTemplate<String, PaymentEvent> paymentEventKafkaTemplate(KafkaProperties kafkaProperties, EventCodec<PaymentEvent> paymentEventCodec) {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(),
+                new StringSerializer(), new EventSerializer<>(paymentEventCodec)));
+    }
+}
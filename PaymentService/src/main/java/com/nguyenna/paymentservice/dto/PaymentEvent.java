@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentEvent {
+    // Unique per event and kept on redelivery, so consumers can drop replays
+    private String eventId;
     private long userId;
     private long orderId;
     private double amount;
@@ -0,0 +1,5 @@
+package com.nguyenna.paymentservice.entity;
+
+public enum ClaimStatus {
+    STARTED, DONE
+}
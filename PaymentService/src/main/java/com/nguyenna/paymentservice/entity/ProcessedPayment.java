@@ -0,0 +1,42 @@
+package com.nguyenna.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "processed_payment", indexes = @Index(name = "idx_processed_payment_started_at", columnList = "startedAt"))
+public class ProcessedPayment implements Persistable<Long> {
+    @Id
+    private long orderId;
+    @Enumerated(EnumType.STRING)
+    private ClaimStatus status;
+    private long startedAt;
+    // New rows are inserted straight away, so a second claim on the same order fails on the primary key
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+}
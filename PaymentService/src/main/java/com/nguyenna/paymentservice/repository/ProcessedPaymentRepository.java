@@ -0,0 +1,30 @@
+package com.nguyenna.paymentservice.repository;
+
+import com.nguyenna.paymentservice.entity.ClaimStatus;
+import com.nguyenna.paymentservice.entity.ProcessedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ProcessedPaymentRepository extends JpaRepository<ProcessedPayment, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ProcessedPayment p WHERE p.startedAt < :cutoff")
+    int deleteAllStartedBefore(@Param("cutoff") long cutoff);
+
+    // Restarts a STARTED claim nobody has touched since staleBefore; of two instances racing for it only one gets 1
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessedPayment p SET p.startedAt = :now WHERE p.orderId = :orderId " +
+            "AND p.status = com.nguyenna.paymentservice.entity.ClaimStatus.STARTED AND p.startedAt < :staleBefore")
+    int takeOverStale(@Param("orderId") long orderId, @Param("staleBefore") long staleBefore, @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessedPayment p SET p.status = :status WHERE p.orderId = :orderId")
+    int updateStatus(@Param("orderId") long orderId, @Param("status") ClaimStatus status);
+}
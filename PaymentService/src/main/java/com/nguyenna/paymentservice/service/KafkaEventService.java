@@ -1,14 +1,18 @@
 package com.nguyenna.paymentservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nguyenna.paymentservice.service.payment.PaymentMethod;
 import com.nguyenna.paymentservice.dto.OrderEvent;
-import com.saadahmedev.paymentservice.service.payment.*;
+import com.nguyenna.paymentservice.service.payment.PaymentMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class KafkaEventService implements OnMessageReceived {
 
@@ -28,15 +32,59 @@ public class KafkaEventService implements OnMessageReceived {
     @Qualifier("nagad")
     private PaymentMethod nagad;
 
+    @Autowired
+    private KeyedPaymentExecutor keyedPaymentExecutor;
+
+    @Autowired
+    private ProcessedPaymentStore processedPaymentStore;
+
+    // "order" keeps each order's events in sequence, "user" serialises all payments of a user
+    @Value("${payment.processing.ordering-key:order}")
+    private String orderingKey;
+
+    private final Logger logger = LoggerFactory.getLogger(KafkaEventService.class);
+
+    /**
+     * Starts a payment for every event of the poll, in parallel across keys, and returns once all of them have
+     * finished so the container only commits offsets for payments that were actually made. If any payment
+     * failed this throws once all are done, and the container redelivers the batch.
+     */
     @Override
-    public void onEvent(String event) throws JsonProcessingException {
-        OrderEvent orderEvent = new ObjectMapper().readValue(event, OrderEvent.class);
-
-        switch (orderEvent.getPayType()) {
-            case CARD -> card.makePayment(orderEvent);
-            case BKASH -> bkash.makePayment(orderEvent);
-            case ROCKET -> rocket.makePayment(orderEvent);
-            case NAGAD -> nagad.makePayment(orderEvent);
+    public void onEvents(List<OrderEvent> events) throws InterruptedException {
+        List<CompletableFuture<Void>> payments = new ArrayList<>();
+        for (OrderEvent orderEvent : events) {
+            // The deserializer hands over undecodable payloads as null
+            if (orderEvent == null) {
+                logger.error("Skipping malformed order event");
+                continue;
+            }
+
+            String key = orderingKey.equals("user") ? "user-" + orderEvent.getUserId() : "order-" + orderEvent.getOrderId();
+            payments.add(keyedPaymentExecutor.submit(key, () -> makePayment(orderEvent)));
+        }
+
+        CompletableFuture.allOf(payments.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void makePayment(OrderEvent orderEvent) {
+        // Tasks of one order run one at a time here; a claim still held by another instance throws and fails the batch
+        if (!processedPaymentStore.tryStart(orderEvent.getOrderId())) {
+            logger.info("Skipping replayed order event " + orderEvent.getEventId() + " for order " + orderEvent.getOrderId());
+            return;
+        }
+
+        try {
+            switch (orderEvent.getPayType()) {
+                case CARD -> card.makePayment(orderEvent);
+                case BKASH -> bkash.makePayment(orderEvent);
+                case ROCKET -> rocket.makePayment(orderEvent);
+                case NAGAD -> nagad.makePayment(orderEvent);
+            }
+        } catch (RuntimeException e) {
+            processedPaymentStore.release(orderEvent.getOrderId());
+            throw e;
         }
+        // Outside the try: once charged, a failure here must not give the order back for a second charge
+        processedPaymentStore.markDone(orderEvent.getOrderId());
     }
 }
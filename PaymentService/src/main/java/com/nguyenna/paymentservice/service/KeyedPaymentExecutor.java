@@ -0,0 +1,95 @@
+package com.nguyenna.paymentservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Runs payment tasks in parallel while keeping tasks that share a key strictly in submission order. Each key
+ * has a tail future that the next task for that key chains onto; unrelated keys never wait for each other.
+ * At most {@code payment.processing.max-in-flight} tasks are queued or running at once, and {@link #submit}
+ * blocks when that limit is reached, which in turn holds back the Kafka poll loop.
+ * <p>
+ * Tasks run on virtual threads when the runtime provides them (Java 21+), otherwise on a cached pool of
+ * platform threads, which the in-flight limit bounds.
+ */
+@Component
+public class KeyedPaymentExecutor {
+
+    @Value("${payment.processing.max-in-flight:200}")
+    private int maxInFlight;
+
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private Semaphore inFlight;
+    private ExecutorService executor;
+
+    private final Logger logger = LoggerFactory.getLogger(KeyedPaymentExecutor.class);
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+        executor = newExecutor();
+    }
+
+    /**
+     * Schedules {@code task} after every earlier task with the same key. The returned future completes once the
+     * task has run, exceptionally if it threw, so the caller can fail the batch; the next task of the key runs
+     * either way.
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) throws InterruptedException {
+        inFlight.acquire();
+
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, next);
+        Runnable guarded = () -> {
+            Throwable failure = null;
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("Payment task for key " + key + " failed: " + e.getMessage());
+                failure = e;
+            } finally {
+                inFlight.release();
+                // Only the last task of a key removes the tail, so the map holds keys with work pending
+                tails.remove(key, next);
+                if (failure == null) next.complete(null);
+                else next.completeExceptionally(failure);
+            }
+        };
+
+        if (previous == null) executor.execute(guarded);
+        else previous.whenComplete((result, error) -> executor.execute(guarded));
+
+        return next;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private ExecutorService newExecutor() {
+        try {
+            // Looked up reflectively so the service still builds and runs on Java 17
+            ExecutorService virtualThreads = (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+            logger.info("Payment tasks run on virtual threads");
+
+            return virtualThreads;
+        } catch (Throwable e) {
+            logger.info("Virtual threads are not available, payment tasks run on platform threads");
+
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.nguyenna.paymentservice.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.nguyenna.paymentservice.dto.OrderEvent;
+
+import java.util.List;
 
 public interface OnMessageReceived {
-    void onEvent(String event) throws JsonProcessingException;
+    void onEvents(List<OrderEvent> events) throws InterruptedException;
 }
@@ -0,0 +1,117 @@
+package com.nguyenna.paymentservice.service;
+
+import com.nguyenna.paymentservice.entity.ClaimStatus;
+import com.nguyenna.paymentservice.entity.ProcessedPayment;
+import com.nguyenna.paymentservice.repository.ProcessedPaymentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Remembers which orders have been paid, so a redelivered order event never charges twice, on whichever instance
+ * the partition lands after a rebalance. A claim is a row in the shared {@code processed_payment} table, inserted
+ * STARTED on its own, so of two instances racing for one order only one insert succeeds, and marked DONE once the
+ * charge and its payment event went through.
+ * <p>
+ * A STARTED claim whose owner crashed would otherwise block the order forever, so a redelivery takes it over once
+ * it is older than {@code payment.dedup.claim-timeout-ms}, which must stay well above the provider and send
+ * timeouts. Until then the redelivery fails, and the batch is retried later. Orders this instance saw DONE also
+ * sit in a bounded in-memory LRU set, which answers most replays without a query.
+ */
+@Component
+public class ProcessedPaymentStore {
+
+    @Autowired
+    private ProcessedPaymentRepository processedPaymentRepository;
+
+    @Value("${payment.dedup.max-cached-orders:100000}")
+    private int maxCachedOrders;
+
+    @Value("${payment.dedup.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Value("${payment.dedup.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    private Set<Long> paidOrders;
+
+    private final Logger logger = LoggerFactory.getLogger(ProcessedPaymentStore.class);
+
+    @PostConstruct
+    public void init() {
+        paidOrders = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maxCachedOrders;
+            }
+        });
+    }
+
+    /**
+     * Claims the order for payment. Returns false if it was already paid, and throws {@link IllegalStateException}
+     * while another attempt still holds a recent claim on it.
+     */
+    public boolean tryStart(long orderId) {
+        synchronized (paidOrders) {
+            if (paidOrders.contains(orderId)) return false;
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            processedPaymentRepository.saveAndFlush(ProcessedPayment.builder().orderId(orderId).status(ClaimStatus.STARTED).startedAt(now).build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Claimed before; decided below
+        }
+
+        Optional<ProcessedPayment> claim = processedPaymentRepository.findById(orderId);
+        // Released in the meantime: the redelivery that follows the failure pays it
+        if (claim.isEmpty()) throw new IllegalStateException("Claim on order " + orderId + " was just released");
+        if (claim.get().getStatus() == ClaimStatus.DONE) {
+            remember(orderId);
+            return false;
+        }
+        if (processedPaymentRepository.takeOverStale(orderId, now - claimTimeoutMs, now) == 1) {
+            logger.warn("Taking over the stale payment claim on order " + orderId + " started at " + claim.get().getStartedAt());
+            return true;
+        }
+
+        throw new IllegalStateException("Payment of order " + orderId + " is still in progress elsewhere");
+    }
+
+    /**
+     * Records that the order was charged and its payment event published, so no redelivery pays it again.
+     */
+    public void markDone(long orderId) {
+        processedPaymentRepository.updateStatus(orderId, ClaimStatus.DONE);
+        remember(orderId);
+    }
+
+    /**
+     * Gives the order back after a payment attempt that failed, so a redelivery can pay it.
+     */
+    public void release(long orderId) {
+        processedPaymentRepository.deleteById(orderId);
+    }
+
+    private void remember(long orderId) {
+        synchronized (paidOrders) {
+            paidOrders.add(orderId);
+        }
+    }
+
+    // Redeliveries come within minutes; claims only need to outlive the longest plausible replay
+    @Scheduled(fixedDelayString = "${payment.dedup.cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        processedPaymentRepository.deleteAllStartedBefore(System.currentTimeMillis() - retentionMs);
+    }
+}
@@ -1,25 +1,32 @@
 package com.nguyenna.paymentservice.service.payment;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nguyenna.paymentservice.dto.OrderEvent;
 import com.nguyenna.paymentservice.dto.PaymentEvent;
 import com.nguyenna.paymentservice.dto.PaymentStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class PaymentService {
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+
+    @Value("${payment.processing.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
 
     private Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
     public void makePayment(OrderEvent orderEvent, PaymentStatus paymentStatus, String message) {
         PaymentEvent paymentEvent = PaymentEvent.builder()
+                .eventId(UUID.randomUUID().toString())
                 .userId(orderEvent.getUserId())
                 .orderId(orderEvent.getOrderId())
                 .paymentStatus(paymentStatus)
@@ -29,10 +36,15 @@ public class PaymentService {
                 .build();
 
         try {
-            String serializedPaymentEvent = new ObjectMapper().writeValueAsString(paymentEvent);
-            kafkaTemplate.send("payment-event", serializedPaymentEvent);
+            // Keyed by order so all payment events of an order land on one partition, in order
+            kafkaTemplate.send("payment-event", String.valueOf(paymentEvent.getOrderId()), paymentEvent).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing the payment of order " + paymentEvent.getOrderId(), e);
         } catch (Exception e) {
-            logger.error(e.getMessage());
+            // Thrown so the caller releases the order's claim and the batch is redelivered
+            logger.error("Failed to publish the payment of order " + paymentEvent.getOrderId() + ": " + e.getMessage());
+            throw new IllegalStateException("Failed to publish the payment of order " + paymentEvent.getOrderId(), e);
         }
     }
 }
@@ -0,0 +1,61 @@
+package com.nguyenna.paymentservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.paymentservice.dto.OrderEvent;
+import com.nguyenna.paymentservice.dto.PayType;
+import com.nguyenna.paymentservice.dto.PaymentEvent;
+import com.nguyenna.paymentservice.dto.PaymentStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SchemaRegistry schemaRegistry = new SchemaRegistry()
+            .register(new OrderEventSchema())
+            .register(new PaymentEventSchema());
+    private final BinaryEventCodec<OrderEvent> orderEventCodec = new BinaryEventCodec<>(schemaRegistry, OrderEventSchema.SUBJECT, OrderEvent.class);
+    private final BinaryEventCodec<PaymentEvent> paymentEventCodec = new BinaryEventCodec<>(schemaRegistry, PaymentEventSchema.SUBJECT, PaymentEvent.class);
+    private final EventDeserializer<OrderEvent> orderEventDeserializer = new EventDeserializer<>(orderEventCodec, new JsonEventCodec<>(objectMapper, OrderEvent.class));
+
+    @Test
+    void everyStatusAndNullFieldsRoundTrip() {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            PaymentEvent event = PaymentEvent.builder().eventId("e-" + status).orderId(-7).userId(Long.MAX_VALUE).amount(0.1).paymentStatus(status).payType(PayType.NAGAD).build();
+            assertEquals(event, paymentEventCodec.decode(paymentEventCodec.encode(event)));
+        }
+
+        PaymentEvent empty = new PaymentEvent();
+        assertEquals(empty, paymentEventCodec.decode(paymentEventCodec.encode(empty)));
+    }
+
+    @Test
+    void deserializerReadsBothFormats() throws Exception {
+        OrderEvent event = OrderEvent.builder().eventId("e1").orderId(12).userId(3).amount(99.5).message("An order has been created").payType(PayType.CARD).build();
+
+        assertEquals(event, orderEventDeserializer.deserialize("order-event", orderEventCodec.encode(event)));
+        assertEquals(event, orderEventDeserializer.deserialize("order-event", objectMapper.writeValueAsBytes(event)));
+    }
+
+    @Test
+    void undecodablePayloadsAreRejected() {
+        byte[] paymentEvent = paymentEventCodec.encode(PaymentEvent.builder().eventId("e1").orderId(1).build());
+        byte[] truncated = Arrays.copyOf(orderEventCodec.encode(OrderEvent.builder().eventId("e1").build()), 5);
+        byte[] unknownSchema = {BinaryEventCodec.MAGIC, 100};
+
+        assertThrows(SerializationException.class, () -> orderEventDeserializer.deserialize("order-event", paymentEvent));
+        assertThrows(SerializationException.class, () -> orderEventDeserializer.deserialize("order-event", truncated));
+        assertThrows(SerializationException.class, () -> orderEventDeserializer.deserialize("order-event", unknownSchema));
+        assertThrows(SerializationException.class, () -> orderEventDeserializer.deserialize("order-event", "not json".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void schemaIdsCannotBeReused() {
+        assertThrows(IllegalStateException.class, () -> schemaRegistry.register(new PaymentEventSchema()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.nguyenna.paymentservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.paymentservice.codec.EventDeserializer;
+import com.nguyenna.paymentservice.codec.JsonEventCodec;
+import com.nguyenna.paymentservice.dto.OrderEvent;
+import com.nguyenna.paymentservice.dto.PayType;
+import com.nguyenna.paymentservice.service.KafkaEventService;
+import com.nguyenna.paymentservice.service.KeyedPaymentExecutor;
+import com.nguyenna.paymentservice.service.ProcessedPaymentStore;
+import com.nguyenna.paymentservice.service.payment.PaymentMethod;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the order-event container against an embedded broker with a payment provider that never succeeds, and
+ * checks the batch keeps being retried without its offset ever being committed.
+ */
+@EmbeddedKafka(partitions = 1, topics = "order-event")
+class OrderEventRetryTests {
+
+    private static final String GROUP = "payment-group";
+    private static final int OLD_RETRY_LIMIT = 3;
+
+    @Test
+    void aBatchThatKeepsFailingIsNeverCommitted(EmbeddedKafkaBroker broker) throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        PaymentMethod failing = orderEvent -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("provider unavailable");
+        };
+        KeyedPaymentExecutor executor = new KeyedPaymentExecutor();
+        ReflectionTestUtils.setField(executor, "maxInFlight", 10);
+        executor.init();
+        KafkaEventService service = newService(failing, executor);
+
+        JsonEventCodec<OrderEvent> codec = new JsonEventCodec<>(new ObjectMapper(), OrderEvent.class);
+        ConcurrentMessageListenerContainer<String, OrderEvent> container = newContainer(broker, codec, service);
+        container.start();
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new ByteArraySerializer())) {
+            OrderEvent event = OrderEvent.builder().eventId("e1").orderId(1).userId(1).amount(10).payType(PayType.CARD).build();
+            producer.send(new ProducerRecord<>("order-event", "1", codec.encode(event))).get();
+        }
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (attempts.get() <= OLD_RETRY_LIMIT * 2 && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        container.stop();
+        executor.shutdown();
+
+        assertTrue(attempts.get() > OLD_RETRY_LIMIT * 2, "payment attempts: " + attempts.get());
+        TopicPartition partition = new TopicPartition("order-event", 0);
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(KafkaTestUtils.consumerProps(GROUP, "false", broker),
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.of(partition));
+            assertNull(committed.get(partition));
+        }
+    }
+
+    private KafkaEventService newService(PaymentMethod provider, KeyedPaymentExecutor executor) {
+        ProcessedPaymentStore store = mock(ProcessedPaymentStore.class);
+        when(store.tryStart(anyLong())).thenReturn(true);
+
+        KafkaEventService service = new KafkaEventService();
+        for (String method : List.of("bkash", "card", "rocket", "nagad")) ReflectionTestUtils.setField(service, method, provider);
+        ReflectionTestUtils.setField(service, "keyedPaymentExecutor", executor);
+        ReflectionTestUtils.setField(service, "processedPaymentStore", store);
+        ReflectionTestUtils.setField(service, "orderingKey", "order");
+
+        return service;
+    }
+
+    private ConcurrentMessageListenerContainer<String, OrderEvent> newContainer(EmbeddedKafkaBroker broker, JsonEventCodec<OrderEvent> codec,
+                                                                               KafkaEventService service) {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setBootstrapServers(List.of(broker.getBrokersAsString()));
+        kafkaProperties.getConsumer().setGroupId(GROUP);
+        kafkaProperties.getConsumer().setAutoOffsetReset("earliest");
+
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory = ConsumerConfig.orderEventContainerFactory(kafkaProperties,
+                new EventDeserializer<>(codec, codec), 10, 50);
+        ConcurrentMessageListenerContainer<String, OrderEvent> container = factory.createContainer("order-event");
+        container.getContainerProperties().setMessageListener((BatchMessageListener<String, OrderEvent>) records -> {
+            try {
+                service.onEvents(records.stream().map(ConsumerRecord::value).toList());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        return container;
+    }
+}
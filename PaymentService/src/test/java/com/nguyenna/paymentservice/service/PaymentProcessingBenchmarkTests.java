@@ -0,0 +1,174 @@
+package com.nguyenna.paymentservice.service;
+
+import com.nguyenna.paymentservice.dto.OrderEvent;
+import com.nguyenna.paymentservice.dto.PayType;
+import com.nguyenna.paymentservice.repository.ProcessedPaymentRepository;
+import com.nguyenna.paymentservice.service.payment.PaymentMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds a poll's worth of order events through {@link KafkaEventService} with a payment provider that takes
+ * {@link #PROVIDER_DELAY_MS} per call, and compares the time with handling them one after another.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentProcessingBenchmarkTests {
+
+    private static final int USERS = 100;
+    private static final int ORDERS_PER_USER = 4;
+    private static final long PROVIDER_DELAY_MS = 50;
+
+    private final SlowPaymentMethod provider = new SlowPaymentMethod();
+    private KeyedPaymentExecutor executor;
+
+    @Autowired
+    private ProcessedPaymentRepository processedPaymentRepository;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdown();
+        processedPaymentRepository.deleteAll();
+    }
+
+    @Test
+    void unrelatedUsersArePaidInParallelAndEachUserStaysInSequence() throws Exception {
+        KafkaEventService service = newService(200);
+        List<OrderEvent> events = events();
+
+        long start = System.nanoTime();
+        service.onEvents(events);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double sequentialSeconds = events.size() * PROVIDER_DELAY_MS / 1000.0;
+        System.out.printf("%d payments in %.2f s (%.0f/s), one at a time would take %.1f s%n",
+                events.size(), seconds, events.size() / seconds, sequentialSeconds);
+
+        assertEquals(events.size(), provider.calls.get());
+        for (List<Integer> sequence : provider.sequenceByUser.values()) {
+            assertEquals(List.of(0, 1, 2, 3), sequence);
+        }
+        assertTrue(seconds < sequentialSeconds / 4, "parallel run took " + seconds + " s");
+    }
+
+    @Test
+    void redeliveredEventsDoNotChargeTwice() throws Exception {
+        KafkaEventService service = newService(200);
+        List<OrderEvent> events = events();
+
+        service.onEvents(events);
+        service.onEvents(events);
+
+        assertEquals(events.size(), provider.calls.get());
+    }
+
+    @Test
+    void aFailedPaymentFailsTheBatchAndIsPaidOnRedelivery() throws Exception {
+        KafkaEventService service = newService(200);
+        List<OrderEvent> events = events();
+        // The first order of user 1 fails once; the user's later orders still run behind it
+        provider.failOnce(1 * ORDERS_PER_USER);
+
+        assertThrows(CompletionException.class, () -> service.onEvents(events));
+        assertEquals(events.size() - 1, provider.calls.get());
+        assertEquals(List.of(1, 2, 3), provider.sequenceByUser.get(1L));
+
+        service.onEvents(events);
+        assertEquals(events.size(), provider.calls.get());
+        assertEquals(List.of(1, 2, 3, 0), provider.sequenceByUser.get(1L));
+    }
+
+    @Test
+    void inFlightPaymentsStayWithinTheLimit() throws Exception {
+        KafkaEventService service = newService(10);
+
+        service.onEvents(events());
+
+        assertEquals(USERS * ORDERS_PER_USER, provider.calls.get());
+        assertTrue(provider.maxConcurrent.get() <= 10, "max concurrent payments: " + provider.maxConcurrent.get());
+    }
+
+    private KafkaEventService newService(int maxInFlight) throws Exception {
+        executor = new KeyedPaymentExecutor();
+        ReflectionTestUtils.setField(executor, "maxInFlight", maxInFlight);
+        executor.init();
+
+        KafkaEventService service = new KafkaEventService();
+        for (String method : List.of("bkash", "card", "rocket", "nagad")) ReflectionTestUtils.setField(service, method, provider);
+        ReflectionTestUtils.setField(service, "keyedPaymentExecutor", executor);
+        ReflectionTestUtils.setField(service, "processedPaymentStore", processedPaymentStore());
+        ReflectionTestUtils.setField(service, "orderingKey", "user");
+
+        return service;
+    }
+
+    private ProcessedPaymentStore processedPaymentStore() {
+        ProcessedPaymentStore store = new ProcessedPaymentStore();
+        ReflectionTestUtils.setField(store, "processedPaymentRepository", processedPaymentRepository);
+        ReflectionTestUtils.setField(store, "maxCachedOrders", 100000);
+        ReflectionTestUtils.setField(store, "claimTimeoutMs", 300_000L);
+        store.init();
+
+        return store;
+    }
+
+    private List<OrderEvent> events() {
+        List<OrderEvent> events = new ArrayList<>();
+        for (int sequence = 0; sequence < ORDERS_PER_USER; sequence++) {
+            for (long userId = 1; userId <= USERS; userId++) {
+                events.add(OrderEvent.builder()
+                        .eventId(UUID.randomUUID().toString())
+                        .orderId(userId * ORDERS_PER_USER + sequence)
+                        .userId(userId)
+                        .amount(10)
+                        .message(String.valueOf(sequence))
+                        .payType(PayType.values()[(int) (userId % PayType.values().length)])
+                        .build());
+            }
+        }
+
+        return events;
+    }
+
+    private static class SlowPaymentMethod implements PaymentMethod {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final Map<Long, List<Integer>> sequenceByUser = new ConcurrentHashMap<>();
+
+        private final Set<Long> failingOrders = ConcurrentHashMap.newKeySet();
+
+        void failOnce(long orderId) {
+            failingOrders.add(orderId);
+        }
+
+        @Override
+        public void makePayment(OrderEvent orderEvent) {
+            if (failingOrders.remove(orderEvent.getOrderId())) throw new IllegalStateException("provider timed out");
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(PROVIDER_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sequenceByUser.computeIfAbsent(orderEvent.getUserId(), userId -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(Integer.parseInt(orderEvent.getMessage()));
+            concurrent.decrementAndGet();
+            calls.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.nguyenna.paymentservice.service;
+
+import com.nguyenna.paymentservice.repository.ProcessedPaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProcessedPaymentStoreTests {
+
+    @Autowired
+    private ProcessedPaymentRepository processedPaymentRepository;
+
+    @AfterEach
+    void cleanUp() {
+        processedPaymentRepository.deleteAll();
+    }
+
+    @Test
+    void processedOrdersSurviveARestart() {
+        ProcessedPaymentStore store = newStore(100);
+        assertTrue(store.tryStart(1));
+        store.markDone(1);
+        assertTrue(store.tryStart(2));
+        store.release(2);
+        assertFalse(store.tryStart(1));
+
+        ProcessedPaymentStore restarted = newStore(100);
+        assertFalse(restarted.tryStart(1), "order 1 was already paid");
+        assertTrue(restarted.tryStart(2), "order 2 was released after a failed attempt");
+    }
+
+    @Test
+    void claimsAreSharedBetweenInstances() {
+        ProcessedPaymentStore first = newStore(10);
+        ProcessedPaymentStore second = newStore(10);
+        // Enough orders to push the early ones out of the first instance's cache
+        for (long orderId = 1; orderId <= 100; orderId++) {
+            assertTrue(first.tryStart(orderId));
+            first.markDone(orderId);
+        }
+
+        assertFalse(second.tryStart(1), "a partition moved to the second instance must not pay order 1 again");
+        assertFalse(first.tryStart(1), "order 1 fell out of the cache but is still recorded in the table");
+        assertTrue(first.tryStart(101));
+        first.release(101);
+        assertTrue(second.tryStart(101));
+    }
+
+    @Test
+    void aStartedClaimBlocksRedeliveriesUntilItGoesStale() throws Exception {
+        ProcessedPaymentStore crashed = newStore(10);
+        ProcessedPaymentStore other = newStore(10);
+        // The first instance claims the order and dies before the payment finishes
+        assertTrue(crashed.tryStart(1));
+
+        assertThrows(IllegalStateException.class, () -> other.tryStart(1), "the payment may still be running");
+
+        ReflectionTestUtils.setField(other, "claimTimeoutMs", 10L);
+        Thread.sleep(20);
+        assertTrue(other.tryStart(1), "a stale claim is taken over");
+        other.markDone(1);
+        assertFalse(other.tryStart(1));
+        assertFalse(newStore(10).tryStart(1));
+    }
+
+    private ProcessedPaymentStore newStore(int maxCachedOrders) {
+        ProcessedPaymentStore store = new ProcessedPaymentStore();
+        ReflectionTestUtils.setField(store, "processedPaymentRepository", processedPaymentRepository);
+        ReflectionTestUtils.setField(store, "maxCachedOrders", maxCachedOrders);
+        ReflectionTestUtils.setField(store, "claimTimeoutMs", 300_000L);
+        store.init();
+
+        return store;
+    }
+}
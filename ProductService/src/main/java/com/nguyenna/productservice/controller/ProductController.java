@@ -32,8 +32,10 @@ public class ProductController {
 
     @GetMapping
     @CircuitBreaker(name = "getProducts", fallbackMethod = "fallback")
-    public ResponseEntity<?> getProducts() {
-        return productService.getProducts();
+    public ResponseEntity<?> getProducts(@RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(defaultValue = "id") String sort) {
+        return productService.getProducts(after, size, sort);
     }
 
     @GetMapping("/{id}")
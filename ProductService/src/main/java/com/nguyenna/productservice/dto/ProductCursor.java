@@ -0,0 +1,42 @@
+package com.nguyenna.productservice.dto;
+
+import com.nguyenna.productservice.entity.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort, the last product's sort key and its id, base64url encoded. The next page seeks
+ * from these values directly, so the cursor stays valid when that product is deleted in between.
+ */
+public record ProductCursor(String sort, String key, long id) {
+
+    public static ProductCursor after(String sort, Product product) {
+        String key = switch (sort) {
+            case "price" -> Double.toString(product.getPrice());
+            case "createdAt" -> product.getCreatedAt();
+            default -> Long.toString(product.getId());
+        };
+
+        return new ProductCursor(sort, key, product.getId());
+    }
+
+    // The key goes last because a createdAt value contains colons itself
+    public String encode() {
+        String raw = sort + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} for anything that was not produced by {@link #encode()}.
+     */
+    public static ProductCursor decode(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length != 3) throw new IllegalArgumentException("Malformed cursor");
+
+        ProductCursor productCursor = new ProductCursor(parts[0], parts[2], Long.parseLong(parts[1]));
+        if (parts[0].equals("price")) Double.parseDouble(parts[2]);
+
+        return productCursor;
+    }
+}
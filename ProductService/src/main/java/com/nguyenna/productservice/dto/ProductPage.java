@@ -0,0 +1,20 @@
+package com.nguyenna.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductWrapper> products;
+    private String sort;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,5 @@
+package com.nguyenna.productservice.dto.kafka;
+
+public enum ProductEventType {
+    CREATED, UPDATED, DELETED
+}
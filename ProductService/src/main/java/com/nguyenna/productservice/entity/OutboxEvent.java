@@ -0,0 +1,25 @@
+package com.nguyenna.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_outbox")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    private long productId;
+    private String eventType;
+    private int version;
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    private long createdAt;
+}
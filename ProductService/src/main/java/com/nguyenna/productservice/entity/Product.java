@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
 import java.util.List;
 
 @Data
@@ -12,6 +14,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_created_at_id", columnList = "createdAt, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +27,7 @@ public class Product {
     private double price;
     private int discount;
     @OneToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     private List<Image> images;
     private String createdAt;
     private String updatedAt;
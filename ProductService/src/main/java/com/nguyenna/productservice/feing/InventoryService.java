@@ -10,6 +10,10 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+import java.util.Map;
 
 @Service
 @FeignClient(name = "INVENTORY-SERVICE", url = AppConstants.BASE_URL)
@@ -21,6 +25,9 @@ public interface InventoryService {
     @GetMapping("/api/inventory/{id}")
     ResponseEntity<InventoryResponse> getProduct(@PathVariable long id);
 
+    @PostMapping("/api/inventory/stock")
+    ResponseEntity<Map<Long, Integer>> getStock(@RequestBody List<Long> ids);
+
     @DeleteMapping("/api/inventory/{id}")
     ResponseEntity<ApiResponse> deleteProduct(@PathVariable long id);
 }
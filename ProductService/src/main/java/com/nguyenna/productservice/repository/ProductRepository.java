@@ -1,8 +1,36 @@
 package com.nguyenna.productservice.repository;
 
 import com.nguyenna.productservice.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {}
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p.id IN :ids")
+    List<Product> findAllWithImagesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    List<Product> findFirstPageOrderById(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findPageOrderById(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p ORDER BY p.price, p.id")
+    List<Product> findFirstPageOrderByPrice(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.price > :price OR (p.price = :price AND p.id > :afterId) ORDER BY p.price, p.id")
+    List<Product> findPageOrderByPrice(@Param("price") double price, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt, p.id")
+    List<Product> findFirstPageOrderByCreatedAt(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :afterId) ORDER BY p.createdAt, p.id")
+    List<Product> findPageOrderByCreatedAt(@Param("createdAt") String createdAt, @Param("afterId") long afterId, Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package com.nguyenna.productservice.service;
+
+import com.nguyenna.productservice.entity.OutboxEvent;
+import com.nguyenna.productservice.repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves committed outbox rows to Kafka. A batch is sent in id order and only the prefix acknowledged by the
+ * broker is deleted, so an event is never lost and is only sent again if an earlier one in its batch failed.
+ */
+@Component
+public class OutboxRelay {
+
+    public static final String VERSION_HEADER = "event-version";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${product.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay-ms:500}")
+    @Transactional
+    public int relay() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForRelay(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(ProductEventPublisher.PRODUCT_EVENT_TOPIC, String.valueOf(event.getProductId()), event.getPayload());
+            record.headers().add(VERSION_HEADER, String.valueOf(event.getVersion()).getBytes(StandardCharsets.UTF_8));
+            futures.add(kafkaTemplate.send(record));
+        }
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sentIds.add(batch.get(i).getId());
+            } catch (Exception e) {
+                logger.error("Failed to relay outbox event " + batch.get(i).getId() + ": " + e.getMessage());
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        return sentIds.size();
+    }
+}
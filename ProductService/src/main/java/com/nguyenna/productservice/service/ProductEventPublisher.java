@@ -0,0 +1,64 @@
+package com.nguyenna.productservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nguyenna.productservice.dto.kafka.ProductEvent;
+import com.nguyenna.productservice.dto.kafka.ProductEventType;
+import com.nguyenna.productservice.entity.OutboxEvent;
+import com.nguyenna.productservice.entity.Product;
+import com.nguyenna.productservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+
+/**
+ * Records product changes in the {@code product_outbox} table. It must run inside the transaction that writes
+ * the product, so a change and its event commit or roll back together; {@link OutboxRelay} sends them to Kafka.
+ */
+@Service
+public class ProductEventPublisher {
+
+    public static final String PRODUCT_EVENT_TOPIC = "product-events";
+
+    /**
+     * Bumped whenever the payload changes shape, so consumers can tell old and new events apart.
+     */
+    public static final int PAYLOAD_VERSION = 1;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(ProductEventType type, Product product) {
+        ProductEvent productEvent = ProductEvent.builder()
+                .version(PAYLOAD_VERSION)
+                .type(type)
+                .productId(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .discount(product.getDiscount())
+                .images(product.getImages() == null ? new ArrayList<>() : new ArrayList<>(product.getImages()))
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .productId(product.getId())
+                    .eventType(type.name())
+                    .version(PAYLOAD_VERSION)
+                    .payload(objectMapper.writeValueAsString(productEvent))
+                    .createdAt(System.currentTimeMillis())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -16,7 +16,7 @@ public interface ProductService {
 
     ResponseEntity<?> deleteProductImage(long id, long imageId);
 
-    ResponseEntity<?> getProducts();
+    ResponseEntity<?> getProducts(String after, int size, String sort);
 
     ResponseEntity<?> getProduct(long id);
 
@@ -2,6 +2,9 @@ package com.nguyenna.productservice.service;
 
 import com.nguyenna.productservice.dto.ApiResponse;
 import com.nguyenna.productservice.dto.InventoryResponse;
+import com.nguyenna.productservice.dto.ProductCursor;
+import com.nguyenna.productservice.dto.ProductPage;
+import com.nguyenna.productservice.dto.kafka.ProductEventType;
 import com.nguyenna.productservice.feing.InventoryService;
 import com.nguyenna.productservice.util.DateTimeUtil;
 import com.nguyenna.productservice.util.ValidatorUtil;
@@ -11,15 +14,23 @@ import com.nguyenna.productservice.entity.Image;
 import com.nguyenna.productservice.entity.Product;
 import com.nguyenna.productservice.repository.ImageRepository;
 import com.nguyenna.productservice.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -40,7 +51,27 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private ProductEventPublisher productEventPublisher;
+
+    @Value("${product.cart.max-batch-size:500}")
+    private int cartMaxBatchSize;
+
+    @Value("${product.page.max-size:100}")
+    private int maxPageSize;
+
+    private static final List<String> SORT_FIELDS = List.of("id", "price", "createdAt");
+
+    // A batch size below one would keep the chunking in getCartProducts from ever advancing
+    @PostConstruct
+    public void init() {
+        if (cartMaxBatchSize < 1) {
+            throw new IllegalStateException("product.cart.max-batch-size must be at least 1, was " + cartMaxBatchSize);
+        }
+    }
+
     @Override
+    @Transactional
     public ResponseEntity<?> createProduct(List<MultipartFile> images, ProductRequest productRequest) {
         ResponseEntity<?> validationResult = validatorUtil.isCreateProductRequestValid(images, productRequest);
         if (validationResult.getStatusCode().isSameCodeAs(HttpStatus.BAD_REQUEST)) return validationResult;
@@ -69,6 +100,7 @@ public class ProductServiceImpl implements ProductService {
             Product p = productRepository.save(product);
             ResponseEntity<ApiResponse> apiResponse = inventoryService.createProduct(p.getId(), productRequest.getStock());
             if (!apiResponse.getStatusCode().isSameCodeAs(HttpStatus.CREATED)) return apiResponse;
+            productEventPublisher.publish(ProductEventType.CREATED, p);
 
             return new ResponseEntity<>(new ApiResponse(true, "Product added successfully"), HttpStatus.CREATED);
         } catch (Exception e) {
@@ -77,6 +109,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ResponseEntity<?> updateProduct(long id, List<MultipartFile> images, ProductRequest productRequest) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isEmpty())
@@ -96,6 +129,7 @@ public class ProductServiceImpl implements ProductService {
         try {
             imageRepository.saveAll(imageData);
             productRepository.save(product);
+            productEventPublisher.publish(ProductEventType.UPDATED, product);
 
             return new ResponseEntity<>(new ApiResponse(true, "Product updated successfully"), HttpStatus.CREATED);
         } catch (Exception e) {
@@ -115,6 +149,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ResponseEntity<?> deleteProductImage(long id, long imageId) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found"), HttpStatus.BAD_REQUEST);
@@ -123,9 +158,11 @@ public class ProductServiceImpl implements ProductService {
         Product product = optionalProduct.get();
         Image image = optionalImage.get();
         product.getImages().removeIf(i -> i.getId().equals(imageId));
+        product.setUpdatedAt(DateTimeUtil.getCurrentDateTime());
 
         try {
             productRepository.save(product);
+            productEventPublisher.publish(ProductEventType.UPDATED, product);
             imageRepository.delete(image);
             imageUploadService.deleteImage(image);
 
@@ -136,30 +173,55 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public ResponseEntity<?> getProducts() {
-        List<Product> products = productRepository.findAll();
-        List<ProductWrapper> productWrappers = new ArrayList<>();
-
-        for (Product p : products) {
-            InventoryResponse inventoryResponse = inventoryService.getProduct(p.getId()).getBody();
-
-            productWrappers.add(
-                    ProductWrapper.builder()
-                            .id(p.getId())
-                            .title(p.getTitle())
-                            .description(p.getDescription())
-                            .price(p.getPrice())
-                            .discount(p.getDiscount())
-                            .images(p.getImages())
-                            .isAvailable(inventoryResponse.getProductCount() > 0)
-                            .inStock(inventoryResponse.getProductCount())
-                            .createdAt(p.getCreatedAt())
-                            .updatedAt(p.getUpdatedAt())
-                            .build()
-            );
+    public ResponseEntity<?> getProducts(String after, int size, String sort) {
+        if (size < 1 || size > maxPageSize) return new ResponseEntity<>(new ApiResponse(false, "Page size must be between 1 and " + maxPageSize), HttpStatus.BAD_REQUEST);
+        if (!SORT_FIELDS.contains(sort)) return new ResponseEntity<>(new ApiResponse(false, "Sort must be one of " + SORT_FIELDS), HttpStatus.BAD_REQUEST);
+
+        ProductCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = ProductCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(new ApiResponse(false, "Invalid cursor"), HttpStatus.BAD_REQUEST);
+            }
+            if (!cursor.sort().equals(sort)) return new ResponseEntity<>(new ApiResponse(false, "Cursor belongs to sort " + cursor.sort()), HttpStatus.BAD_REQUEST);
         }
 
-        return new ResponseEntity<>(productWrappers, HttpStatus.OK);
+        // One extra row tells whether another page follows without a COUNT query
+        List<Product> products = findPage(cursor, sort, PageRequest.of(0, size + 1));
+        boolean hasMore = products.size() > size;
+        if (hasMore) products = products.subList(0, size);
+
+        Map<Long, Integer> stock = getStock(products);
+        List<ProductWrapper> productWrappers = new ArrayList<>(products.size());
+        for (Product p : products) productWrappers.add(mapToProductWrapper(p, stock.getOrDefault(p.getId(), 0)));
+
+        ProductPage productPage = ProductPage.builder()
+                .products(productWrappers)
+                .sort(sort)
+                .size(size)
+                .nextCursor(hasMore ? ProductCursor.after(sort, products.get(products.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+
+        return new ResponseEntity<>(productPage, HttpStatus.OK);
+    }
+
+    private List<Product> findPage(ProductCursor cursor, String sort, Pageable pageable) {
+        switch (sort) {
+            case "price":
+                return cursor == null
+                        ? productRepository.findFirstPageOrderByPrice(pageable)
+                        : productRepository.findPageOrderByPrice(Double.parseDouble(cursor.key()), cursor.id(), pageable);
+            case "createdAt":
+                return cursor == null
+                        ? productRepository.findFirstPageOrderByCreatedAt(pageable)
+                        : productRepository.findPageOrderByCreatedAt(cursor.key(), cursor.id(), pageable);
+            default:
+                return cursor == null
+                        ? productRepository.findFirstPageOrderById(pageable)
+                        : productRepository.findPageOrderById(cursor.id(), pageable);
+        }
     }
 
     @Override
@@ -169,23 +231,37 @@ public class ProductServiceImpl implements ProductService {
 
         Product p = optionalProduct.get();
         InventoryResponse inventoryResponse = inventoryService.getProduct(p.getId()).getBody();
-        ProductWrapper productWrapper = ProductWrapper.builder()
+
+        return new ResponseEntity<>(mapToProductWrapper(p, inventoryResponse.getProductCount()), HttpStatus.OK);
+    }
+
+    private Map<Long, Integer> getStock(List<Product> products) {
+        if (products.isEmpty()) return new HashMap<>();
+
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Product p : products) ids.add(p.getId());
+
+        Map<Long, Integer> stock = inventoryService.getStock(ids).getBody();
+        return stock == null ? new HashMap<>() : stock;
+    }
+
+    private static ProductWrapper mapToProductWrapper(Product p, int productCount) {
+        return ProductWrapper.builder()
                 .id(p.getId())
                 .title(p.getTitle())
                 .description(p.getDescription())
                 .price(p.getPrice())
                 .discount(p.getDiscount())
                 .images(p.getImages())
-                .isAvailable(inventoryResponse.getProductCount() > 0)
-                .inStock(inventoryResponse.getProductCount())
+                .isAvailable(productCount > 0)
+                .inStock(productCount)
                 .createdAt(p.getCreatedAt())
                 .updatedAt(p.getUpdatedAt())
                 .build();
-
-        return new ResponseEntity<>(productWrapper, HttpStatus.OK);
     }
 
     @Override
+    @Transactional
     public ResponseEntity<?> deleteProduct(long id) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isEmpty()) return new ResponseEntity<>(new ApiResponse(false, "Product not found"), HttpStatus.BAD_REQUEST);
@@ -194,6 +270,7 @@ public class ProductServiceImpl implements ProductService {
 
         try {
             productRepository.delete(product);
+            productEventPublisher.publish(ProductEventType.DELETED, product);
             inventoryService.deleteProduct(product.getId());
             imageUploadService.deleteImages(images);
             for (Image image : images) imageRepository.delete(imageRepository.findById(image.getId()).get());
@@ -205,12 +282,22 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getCartProducts(List<Long> productIds) {
-        List<Product> productList = new ArrayList<>();
+        if (productIds == null || productIds.isEmpty()) return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<Long, Product> productMap = new HashMap<>(distinctIds.size());
+
+        for (int from = 0; from < distinctIds.size(); from += cartMaxBatchSize) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + cartMaxBatchSize, distinctIds.size()));
+            for (Product p : productRepository.findAllWithImagesByIdIn(batch)) productMap.put(p.getId(), p);
+        }
 
+        List<Product> productList = new ArrayList<>(productIds.size());
         for (Long id : productIds) {
-            Optional<Product> product = productRepository.findById(id);
-            product.ifPresent(productList::add);
+            Product product = productMap.get(id);
+            if (product != null) productList.add(product);
         }
 
         return new ResponseEntity<>(productList, HttpStatus.OK);
@@ -0,0 +1,140 @@
+package com.nguyenna.productservice.service;
+
+import com.nguyenna.productservice.entity.Image;
+import com.nguyenna.productservice.entity.Product;
+import com.nguyenna.productservice.feing.InventoryService;
+import com.nguyenna.productservice.repository.ImageRepository;
+import com.nguyenna.productservice.repository.ProductRepository;
+import com.nguyenna.productservice.util.ValidatorUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics = true",
+        "product.cart.max-batch-size = 500"
+})
+@Import(ProductServiceImpl.class)
+class CartProductsBenchmarkTests {
+
+    private static final int CATALOGUE_SIZE = 1000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ValidatorUtil validatorUtil;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private ProductEventPublisher productEventPublisher;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CATALOGUE_SIZE; i++) {
+            List<Image> images = imageRepository.saveAll(List.of(
+                    Image.builder().url("image-" + i + "-a").build(),
+                    Image.builder().url("image-" + i + "-b").build()
+            ));
+            Product product = productRepository.save(Product.builder()
+                    .title("Product " + i)
+                    .description("Description " + i)
+                    .price(i)
+                    .images(new ArrayList<>(images))
+                    .build());
+            productIds.add(product.getId());
+        }
+        clearSession();
+    }
+
+    @Test
+    void getCartProductsKeepsRequestOrder() {
+        List<Long> requested = new ArrayList<>(productIds.subList(0, 50));
+        Collections.shuffle(requested, new Random(42));
+        requested.add(requested.get(0));
+        requested.add(-1L);
+
+        List<Product> products = cartProducts(requested);
+
+        assertEquals(requested.size() - 1, products.size());
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals(requested.get(i), products.get(i).getId());
+            assertEquals(2, products.get(i).getImages().size());
+        }
+    }
+
+    @Test
+    void benchmarkCartProducts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int size : new int[]{1, 10, 100, 1000}) {
+            List<Long> requested = productIds.subList(0, size);
+
+            statistics.clear();
+            long start = System.nanoTime();
+            for (Long id : requested) productRepository.findById(id).ifPresent(p -> p.getImages().size());
+            long loopNanos = System.nanoTime() - start;
+            long loopQueries = statistics.getPrepareStatementCount();
+            clearSession();
+
+            statistics.clear();
+            start = System.nanoTime();
+            List<Product> products = cartProducts(requested);
+            long batchNanos = System.nanoTime() - start;
+            long batchQueries = statistics.getPrepareStatementCount();
+            clearSession();
+
+            System.out.printf("getCartProducts ids=%d loop[queries=%d, %.2f ms] batch[queries=%d, %.2f ms]%n",
+                    size, loopQueries, loopNanos / 1e6, batchQueries, batchNanos / 1e6);
+
+            assertEquals(size, products.size());
+            assertEquals((size + 499) / 500, batchQueries);
+            assertTrue(batchQueries <= loopQueries);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Product> cartProducts(List<Long> ids) {
+        return (List<Product>) productService.getCartProducts(ids).getBody();
+    }
+
+    private void clearSession() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
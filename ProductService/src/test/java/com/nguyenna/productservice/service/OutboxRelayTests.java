@@ -0,0 +1,131 @@
+package com.nguyenna.productservice.service;
+
+import com.nguyenna.productservice.dto.ProductRequest;
+import com.nguyenna.productservice.dto.kafka.ProductEventType;
+import com.nguyenna.productservice.entity.OutboxEvent;
+import com.nguyenna.productservice.entity.Product;
+import com.nguyenna.productservice.feing.InventoryService;
+import com.nguyenna.productservice.repository.OutboxEventRepository;
+import com.nguyenna.productservice.repository.ProductRepository;
+import com.nguyenna.productservice.util.ValidatorUtil;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        // The test relays by hand; keep the scheduled relay from racing it
+        "product.outbox.relay-ms = 3600000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductServiceImpl.class, ProductEventPublisher.class, OutboxRelay.class, JacksonAutoConfiguration.class})
+class OutboxRelayTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductEventPublisher productEventPublisher;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private ValidatorUtil validatorUtil;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void productChangesAreRelayedInOrderWithKeyAndVersion() {
+        Product product = productRepository.save(Product.builder().title("Phone").price(100).images(new ArrayList<>()).build());
+        assertEquals(HttpStatus.CREATED, productService.updateProduct(product.getId(), null, new ProductRequest("Phone 2", null, 90.0, null, 0)).getStatusCode());
+        assertEquals(HttpStatus.OK, productService.deleteProduct(product.getId()).getStatusCode());
+
+        List<OutboxEvent> outbox = outboxEventRepository.findAll();
+        assertEquals(List.of("UPDATED", "DELETED"), outbox.stream().map(OutboxEvent::getEventType).toList());
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        assertEquals(2, outboxRelay.relay());
+        assertEquals(0, outboxEventRepository.count());
+
+        ArgumentCaptor<ProducerRecord<String, String>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        ProducerRecord<String, String> first = records.getAllValues().get(0);
+        assertEquals(ProductEventPublisher.PRODUCT_EVENT_TOPIC, first.topic());
+        assertEquals(String.valueOf(product.getId()), first.key());
+        assertTrue(first.value().contains("\"title\":\"Phone 2\""));
+        assertEquals("1", new String(first.headers().lastHeader(OutboxRelay.VERSION_HEADER).value(), StandardCharsets.UTF_8));
+        assertTrue(records.getAllValues().get(1).value().contains("\"type\":\"DELETED\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSendKeepsItAndEverythingAfterIt() {
+        Product product = productRepository.save(Product.builder().title("Laptop").price(100).images(new ArrayList<>()).build());
+        for (int i = 0; i < 3; i++) productService.updateProduct(product.getId(), null, new ProductRequest("Laptop " + i, null, null, null, 0));
+
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        assertEquals(1, outboxRelay.relay());
+        assertEquals(2, outboxEventRepository.count());
+
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        assertEquals(2, outboxRelay.relay());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void outboxWritesRequireTheCallersTransaction() {
+        Product product = Product.builder().id(1).title("Orphan").build();
+
+        assertThrows(IllegalTransactionStateException.class, () -> productEventPublisher.publish(ProductEventType.UPDATED, product));
+        assertEquals(0, outboxEventRepository.count());
+    }
+}
@@ -0,0 +1,150 @@
+package com.nguyenna.productservice.service;
+
+import com.nguyenna.productservice.dto.ProductCursor;
+import com.nguyenna.productservice.dto.ProductPage;
+import com.nguyenna.productservice.dto.ProductWrapper;
+import com.nguyenna.productservice.feing.InventoryService;
+import com.nguyenna.productservice.repository.ProductRepository;
+import com.nguyenna.productservice.util.ValidatorUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform = org.hibernate.dialect.H2Dialect",
+        "product.page.max-size = 100"
+})
+@Import(ProductServiceImpl.class)
+class ProductPageBenchmarkTests {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 5000;
+    private static final int CATALOGUE_SIZE = PAGE_SIZE * DEEP_PAGE + PAGE_SIZE;
+    private static final int SAMPLES = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ValidatorUtil validatorUtil;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private ProductEventPublisher productEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.createNativeQuery(
+                "INSERT INTO product (id, title, description, price, discount, created_at, updated_at) " +
+                "SELECT X, CONCAT('Product ', X), 'Description', MOD(X, 50), 0, " +
+                "CONCAT('2024-01-01T00:00:', LPAD(CAST(MOD(X, 60) AS VARCHAR), 2, '0'), '.000Z'), '' " +
+                "FROM SYSTEM_RANGE(1, " + CATALOGUE_SIZE + ")"
+        ).executeUpdate();
+        entityManager.clear();
+        when(inventoryService.getStock(anyList())).thenReturn(ResponseEntity.ok(new HashMap<>()));
+    }
+
+    @Test
+    void keysetWalkVisitsEveryProductOnce() {
+        for (String sort : new String[]{"id", "price", "createdAt"}) {
+            Set<Long> seen = new HashSet<>();
+            String cursor = null;
+            ProductPage page;
+            do {
+                page = page(cursor, 100, sort);
+                for (ProductWrapper p : page.getProducts()) assertTrue(seen.add(p.getId()), sort + " repeated id " + p.getId());
+                cursor = page.getNextCursor();
+                entityManager.clear();
+            } while (page.isHasMore());
+
+            assertEquals(CATALOGUE_SIZE, seen.size(), sort);
+        }
+    }
+
+    @Test
+    void cursorStillWorksAfterItsProductIsDeleted() {
+        ProductPage first = page(null, 10, "price");
+        long lastId = first.getProducts().get(first.getProducts().size() - 1).getId();
+        productRepository.deleteById(lastId);
+        entityManager.flush();
+        entityManager.clear();
+
+        ResponseEntity<?> next = productService.getProducts(first.getNextCursor(), 10, "price");
+        assertEquals(HttpStatus.OK, next.getStatusCode());
+        assertEquals(10, ((ProductPage) next.getBody()).getProducts().size());
+    }
+
+    @Test
+    void benchmarkFirstAndDeepPage() {
+        long deepId = (long) PAGE_SIZE * (DEEP_PAGE - 1);
+        String deepCursor = idCursor(deepId);
+
+        ProductPage deepPage = page(deepCursor, PAGE_SIZE, "id");
+        assertEquals(deepId + 1, deepPage.getProducts().get(0).getId());
+        assertTrue(deepPage.isHasMore());
+        assertFalse(page(idCursor(deepId + PAGE_SIZE), PAGE_SIZE, "id").isHasMore());
+
+        long keysetFirst = p99(() -> page(null, PAGE_SIZE, "id"));
+        long keysetDeep = p99(() -> page(deepCursor, PAGE_SIZE, "id"));
+        long offsetFirst = p99(() -> productRepository.findFirstPageOrderById(PageRequest.of(0, PAGE_SIZE)));
+        long offsetDeep = p99(() -> productRepository.findFirstPageOrderById(PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE)));
+
+        System.out.printf("p99 page 1: keyset %.3f ms, offset %.3f ms%n", keysetFirst / 1e6, offsetFirst / 1e6);
+        System.out.printf("p99 page %d: keyset %.3f ms, offset %.3f ms%n", DEEP_PAGE, keysetDeep / 1e6, offsetDeep / 1e6);
+    }
+
+    private ProductPage page(String cursor, int size, String sort) {
+        return (ProductPage) productService.getProducts(cursor, size, sort).getBody();
+    }
+
+    private static String idCursor(long id) {
+        return new ProductCursor("id", Long.toString(id), id).encode();
+    }
+
+    private long p99(Supplier<?> call) {
+        for (int i = 0; i < SAMPLES / 4; i++) {
+            call.get();
+            entityManager.clear();
+        }
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            call.get();
+            samples[i] = System.nanoTime() - start;
+            entityManager.clear();
+        }
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(SAMPLES * 0.99) - 1];
+    }
+}